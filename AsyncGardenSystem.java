@@ -0,0 +1,130 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+// AsyncGardenSystem - CompletableFuture front end for a concurrent GardenSystem
+// Every call runs on the given executor and completes with what the
+// GardenSystem method returns (null/false when it rejects the request).
+// Independent plot checks run as separate tasks so they can proceed side by
+// side; the booking itself still goes through GardenSystem's plot locks.
+public class AsyncGardenSystem {
+    private final GardenSystem system;
+    private final Executor executor;
+
+    public AsyncGardenSystem(GardenSystem system, Executor executor) {
+        if (system == null) {
+            throw new IllegalArgumentException("System cannot be null");
+        }
+        if (!system.isConcurrent()) {
+            throw new IllegalArgumentException("Async access needs a GardenSystem in concurrent mode");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        this.system = system;
+        this.executor = executor;
+    }
+
+    public AsyncGardenSystem(GardenSystem system) {
+        this(system, ForkJoinPool.commonPool());
+    }
+
+    // getters
+
+    public GardenSystem getSystem() {
+        return system;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    // availability queries
+
+    public CompletableFuture<List<GardenPlot>> findAvailablePlots(DateRange range) {
+        return CompletableFuture.supplyAsync(() -> system.findAvailablePlots(range), executor);
+    }
+
+    public CompletableFuture<List<GardenPlot>> findAvailablePlots(DateRange range, Crop crop) {
+        return CompletableFuture.supplyAsync(() -> system.findAvailablePlots(range, crop), executor);
+    }
+
+    public CompletableFuture<Boolean> isPlotAvailable(String plotId, DateRange range) {
+        return CompletableFuture.supplyAsync(() -> system.isPlotAvailable(plotId, range), executor);
+    }
+
+    // checks every plot as its own task; completes with the free ones in the
+    // order they were given
+    public CompletableFuture<List<String>> findAvailableAmong(List<String> plotIds, DateRange range) {
+        List<CompletableFuture<Boolean>> checks = new ArrayList<>();
+        for (String plotId : plotIds) {
+            checks.add(isPlotAvailable(plotId, range));
+        }
+        return CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[0]))
+            .thenApply(done -> {
+                List<String> free = new ArrayList<>();
+                for (int i = 0; i < plotIds.size(); i++) {
+                    if (checks.get(i).join()) {
+                        free.add(plotIds.get(i));
+                    }
+                }
+                return free;
+            });
+    }
+
+    // books (create + confirm) the first of the plots, in the given order,
+    // that is free for the dates; null if none could be booked. Plots taken
+    // between the check and the booking are skipped.
+    public CompletableFuture<Reservation> bookFirstAvailable(List<String> plotIds,
+                                                             String gardenerId,
+                                                             DateRange range,
+                                                             List<Crop> plantingPlan) {
+        return findAvailableAmong(plotIds, range).thenApplyAsync(free -> {
+            for (String plotId : free) {
+                Reservation reservation = system.bookPlot(plotId, gardenerId, range, plantingPlan);
+                if (reservation != null) {
+                    return reservation;
+                }
+            }
+            return null;
+        }, executor);
+    }
+
+    // reservation management
+
+    public CompletableFuture<Reservation> createReservation(String plotId,
+                                                            String gardenerId,
+                                                            DateRange range,
+                                                            List<Crop> plantingPlan) {
+        return CompletableFuture.supplyAsync(
+            () -> system.createReservation(plotId, gardenerId, range, plantingPlan), executor);
+    }
+
+    public CompletableFuture<Reservation> createReservation(String plotId, String gardenerId, DateRange range) {
+        return createReservation(plotId, gardenerId, range, null);
+    }
+
+    public CompletableFuture<Boolean> confirmReservation(String reservationId) {
+        return CompletableFuture.supplyAsync(() -> system.confirmReservation(reservationId), executor);
+    }
+
+    public CompletableFuture<Boolean> cancelReservation(String reservationId) {
+        return CompletableFuture.supplyAsync(() -> system.cancelReservation(reservationId), executor);
+    }
+
+    public CompletableFuture<Boolean> completeReservation(String reservationId) {
+        return CompletableFuture.supplyAsync(() -> system.completeReservation(reservationId), executor);
+    }
+
+    // reports
+
+    public CompletableFuture<String> generatePlantingReport() {
+        return CompletableFuture.supplyAsync(system::generatePlantingReport, executor);
+    }
+
+    public CompletableFuture<String> generateAvailabilityReport() {
+        return CompletableFuture.supplyAsync(system::generateAvailabilityReport, executor);
+    }
+}
@@ -0,0 +1,167 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// AvailabilityBenchmark - read throughput of availability queries under a
+// steady trickle of bookings, at 1, 4, 16 and 64 reader threads.
+//
+// "stamped" runs the queries as GardenSystem does (optimistic stamped reads
+// on each plot). "synchronized" is the plain baseline: each plot's calendar
+// sits behind nothing but its monitor, the way a synchronized GardenPlot
+// would keep it, and readers never touch a StampedLock. One writer thread
+// keeps booking and cancelling through GardenSystem throughout both runs;
+// in the synchronized run it also mirrors every change into the monitor
+// plots. One read in 20 is a whole-garden search and counts as a single
+// read.
+//
+// Usage: java AvailabilityBenchmark [secondsPerRun]
+public class AvailabilityBenchmark {
+    private static final int PLOTS = 200;
+    private static final int GARDENERS = 400;
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+    private static final LocalDate SEASON_START = LocalDate.of(2030, 3, 1);
+
+    private static volatile int sink; // keeps search results from being optimized away
+
+    public static void main(String[] args) throws InterruptedException {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2.0;
+        System.out.println("Availability read throughput (" + seconds + " s per run, " +
+                           PLOTS + " plots, " + Runtime.getRuntime().availableProcessors() + " CPUs)");
+        System.out.println();
+        System.out.printf("%-8s %18s %22s %8s%n", "threads", "stamped reads/s", "synchronized reads/s", "ratio");
+        System.out.println("─────────────────────────────────────────────────────────────");
+
+        // rejected bookings print errors - keep them out of the table
+        PrintStream console = System.out;
+        PrintStream quiet = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(quiet);
+        run(false, 1, seconds / 2); // warm-up
+        run(true, 1, seconds / 2);
+        for (int threads : THREAD_COUNTS) {
+            double stamped = run(false, threads, seconds);
+            double locked = run(true, threads, seconds);
+            console.printf("%-8d %18.0f %22.0f %7.2fx%n", threads, stamped, locked, stamped / locked);
+        }
+        System.setOut(console);
+    }
+
+    // reads per second with 'threads' readers and one writer
+    private static double run(boolean synchronizedReads, int threads, double seconds)
+            throws InterruptedException {
+        GardenSystem system = buildSystem();
+        List<GardenPlot> plots = system.getPlots();
+        MonitorPlot[] mirrors = new MonitorPlot[PLOTS];
+        for (int i = 0; i < PLOTS; i++) {
+            mirrors[i] = new MonitorPlot();
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+
+        Thread writer = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Reservation> booked = new ArrayList<>();
+            while (running.get()) {
+                int index = random.nextInt(PLOTS);
+                DateRange range = randomRange(random);
+                Reservation reservation = system.bookPlot(plots.get(index).getPlotID(),
+                                                          "G" + random.nextInt(GARDENERS), range, null);
+                if (reservation != null) {
+                    booked.add(reservation);
+                    if (synchronizedReads) {
+                        mirrors[index].set(range);
+                    }
+                }
+                if (booked.size() > PLOTS) {
+                    Reservation old = booked.remove(0);
+                    system.cancelReservation(old.getReservationID());
+                    if (synchronizedReads) {
+                        mirrors[plots.indexOf(old.getPlot())].clear(old.getDateRange());
+                    }
+                }
+                Thread.onSpinWait();
+            }
+        });
+
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            readers.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                while (running.get()) {
+                    DateRange range = randomRange(random);
+                    if (random.nextInt(20) == 0) {
+                        // whole-garden search
+                        int free = 0;
+                        for (int i = 0; i < PLOTS; i++) {
+                            if (isAvailable(plots.get(i), mirrors[i], range, synchronizedReads)) free++;
+                        }
+                        sink = free;
+                        done++;
+                    } else {
+                        int i = random.nextInt(PLOTS);
+                        isAvailable(plots.get(i), mirrors[i], range, synchronizedReads);
+                        done++;
+                    }
+                }
+                reads.add(done);
+            }));
+        }
+
+        writer.start();
+        readers.forEach(Thread::start);
+        Thread.sleep((long) (seconds * 1000));
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        writer.join();
+        return reads.sum() / seconds;
+    }
+
+    private static boolean isAvailable(GardenPlot plot, MonitorPlot mirror, DateRange range,
+                                       boolean synchronizedReads) {
+        return synchronizedReads ? mirror.isAvailable(range) : plot.isAvailable(range);
+    }
+
+    private static DateRange randomRange(ThreadLocalRandom random) {
+        LocalDate start = SEASON_START.plusDays(random.nextInt(200));
+        return new DateRange(start, start.plusDays(1 + random.nextInt(30)));
+    }
+
+    private static GardenSystem buildSystem() {
+        GardenSystem system = new GardenSystem(Clock.systemDefaultZone(), new SequentialIdGenerator(), true);
+        for (int i = 0; i < PLOTS; i++) {
+            system.addPlot(new GardenPlot("P" + i));
+        }
+        for (int i = 0; i < GARDENERS; i++) {
+            system.registerGardener(new Gardener("G" + i));
+        }
+        return system;
+    }
+
+    // a plot calendar guarded by its monitor alone - the synchronized baseline
+    private static final class MonitorPlot {
+        private final OccupancyCalendar calendar = new OccupancyCalendar();
+
+        synchronized boolean isAvailable(DateRange range) {
+            long packed = range.getPacked();
+            return !calendar.isAnySet(PackedDateRange.start(packed), PackedDateRange.end(packed));
+        }
+
+        synchronized void set(DateRange range) {
+            long packed = range.getPacked();
+            calendar.set(PackedDateRange.start(packed), PackedDateRange.end(packed));
+        }
+
+        synchronized void clear(DateRange range) {
+            long packed = range.getPacked();
+            calendar.clear(PackedDateRange.start(packed), PackedDateRange.end(packed));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// BookingIntake - collects booking requests for a short window and books
+// them as one batch (GardenSystem.bookBatch) under a ConflictPolicy.
+// The first request of a batch starts the window; when it closes every
+// request in it is settled at once and its future completes with the
+// confirmed reservation, or null if it lost or was invalid. With a window of
+// 0 nothing is booked until flush() is called. Batch n uses seed + n for the
+// lottery, so a run can be replayed. Once closed, submit() refuses new
+// requests.
+public class BookingIntake {
+    private final GardenSystem system;
+    private final ConflictPolicy policy;
+    private final long seed;
+    private final long windowMillis;
+    private final ScheduledExecutorService timer;   // null when flushed by hand
+
+    private List<BookingRequest> pending;
+    private List<CompletableFuture<Reservation>> waiting;
+    private ScheduledFuture<?> windowEnd;           // timer flush of the current batch, if any
+    private long batchesBooked;
+    private boolean closed;
+
+    public BookingIntake(GardenSystem system, ConflictPolicy policy, long seed, long windowMillis) {
+        if (system == null || policy == null) {
+            throw new IllegalArgumentException("System and policy cannot be null");
+        }
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Window cannot be negative");
+        }
+        if (windowMillis > 0 && !system.isConcurrent()) {
+            throw new IllegalArgumentException("A timed window needs a GardenSystem in concurrent mode");
+        }
+        this.system = system;
+        this.policy = policy;
+        this.seed = seed;
+        this.windowMillis = windowMillis;
+        this.timer = windowMillis > 0 ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "booking-intake");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.pending = new ArrayList<>();
+        this.waiting = new ArrayList<>();
+        this.batchesBooked = 0;
+    }
+
+    // manual flushing only
+    public BookingIntake(GardenSystem system, ConflictPolicy policy, long seed) {
+        this(system, policy, seed, 0);
+    }
+
+    public ConflictPolicy getPolicy() {
+        return policy;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    public synchronized long getBatchesBooked() {
+        return batchesBooked;
+    }
+
+    public CompletableFuture<Reservation> submit(BookingRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Request cannot be null");
+        }
+        CompletableFuture<Reservation> result = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Booking intake is closed");
+            }
+            pending.add(request);
+            waiting.add(result);
+            if (pending.size() == 1 && timer != null) {
+                windowEnd = timer.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        return result;
+    }
+
+    // books everything collected so far; returns one entry per request
+    public List<Reservation> flush() {
+        List<BookingRequest> batch;
+        List<CompletableFuture<Reservation>> futures;
+        long batchSeed;
+        synchronized (this) {
+            if (pending.isEmpty()) return new ArrayList<>();
+            if (windowEnd != null) {
+                windowEnd.cancel(false);   // flushed by hand - the next batch gets a fresh window
+                windowEnd = null;
+            }
+            batch = pending;
+            futures = waiting;
+            pending = new ArrayList<>();
+            waiting = new ArrayList<>();
+            batchSeed = seed + batchesBooked++;
+        }
+
+        List<Reservation> results;
+        try {
+            results = system.bookBatch(batch, policy, batchSeed);
+        } catch (RuntimeException e) {
+            for (CompletableFuture<Reservation> future : futures) {
+                future.completeExceptionally(e);
+            }
+            throw e;
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            futures.get(i).complete(results.get(i));
+        }
+        return results;
+    }
+
+    // books what is left and stops the window timer
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        if (timer != null) {
+            timer.shutdown();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,50 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// BookingRequest - one plot booking waiting in a batch (see BookingIntake)
+public final class BookingRequest {
+    private final String plotId;
+    private final String gardenerId;
+    private final DateRange dateRange;
+    private final List<Crop> plantingPlan;
+
+    public BookingRequest(String plotId, String gardenerId, DateRange dateRange, List<Crop> plantingPlan) {
+        if (plotId == null || gardenerId == null || dateRange == null) {
+            throw new IllegalArgumentException("Plot, gardener and date range cannot be null");
+        }
+        // refused here, at submission, rather than failing the whole batch later
+        if (plantingPlan != null && plantingPlan.contains(null)) {
+            throw new IllegalArgumentException("Planting plan cannot contain an empty crop");
+        }
+        this.plotId = plotId;
+        this.gardenerId = gardenerId;
+        this.dateRange = dateRange;
+        this.plantingPlan = plantingPlan != null ? new ArrayList<>(plantingPlan) : new ArrayList<>();
+    }
+
+    public BookingRequest(String plotId, String gardenerId, DateRange dateRange) {
+        this(plotId, gardenerId, dateRange, null);
+    }
+
+    public String getPlotId() {
+        return plotId;
+    }
+
+    public String getGardenerId() {
+        return gardenerId;
+    }
+
+    public DateRange getDateRange() {
+        return dateRange;
+    }
+
+    public List<Crop> getPlantingPlan() {
+        return Collections.unmodifiableList(plantingPlan);
+    }
+
+    @Override
+    public String toString() {
+        return gardenerId + " -> " + plotId + " | " + dateRange;
+    }
+}
@@ -0,0 +1,149 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// ColdStartBenchmark - how long startup takes to rebuild a GardenSystem
+// from a snapshot plus the journal tail written after it.
+//
+// Builds a garden with the given number of reservations (mostly past,
+// completed seasons plus some cancelled and current bookings), snapshots it,
+// journals a few thousand more bookings and then times recovery into a fresh
+// system, snapshot load and tail replay separately. Best of three runs.
+// The same state is also written as a MappedSnapshot to show what a
+// read-only process pays to open it and answer a few queries.
+//
+// Usage: java -Xms2g -Xmx2g -Xmn1g ColdStartBenchmark [reservations] [tailBookings]
+// The heap flags matter: with the default heap sizing the young collections
+// copy the freshly restored garden several times and a million reservations
+// take 1.5 s or more to load instead of about 0.8 s.
+public class ColdStartBenchmark {
+    private static final int RESERVATIONS_PER_PLOT = 50;
+    private static final LocalDate FIRST_SEASON = LocalDate.of(2000, 3, 1);
+
+    public static void main(String[] args) throws IOException {
+        int reservations = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int tailBookings = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        Path dir = Files.createTempDirectory("garden-coldstart");
+        Path snapshot = dir.resolve("garden.snapshot");
+        Path journalFile = dir.resolve("garden.journal");
+        Path mappedFile = dir.resolve("garden.gmap");
+
+        GardenSystem system = buildSystem(reservations);
+        GardenJournal journal = GardenJournal.open(journalFile);
+        system.setJournal(journal);
+        long start = System.nanoTime();
+        GardenSnapshot.write(snapshot, system, journal.getAppendedOffset());
+        long writeNanos = System.nanoTime() - start;
+        MappedSnapshot.write(mappedFile, system, journal.getAppendedOffset());
+
+        // new gardeners and bookings after the snapshot, one plot-day each
+        for (int i = 0; i < 1000; i++) {
+            system.registerGardener(new Gardener("T" + i));
+        }
+        LocalDate day = LocalDate.of(2040, 1, 1);
+        for (int i = 0; i < tailBookings; i++) {
+            String plotId = "P" + (i % system.getPlots().size());
+            Reservation reservation = system.createReservation(plotId, "T" + (i % 1000),
+                                                               new DateRange(day, day), null);
+            if (reservation != null) {
+                system.cancelReservation(reservation.getReservationID());
+            }
+            if (i % system.getPlots().size() == system.getPlots().size() - 1) {
+                day = day.plusDays(1);
+            }
+        }
+        journal.close();
+
+        System.out.println("Cold start: " + system.getReservations().size() + " reservations, " +
+                           system.getPlots().size() + " plots, " + system.getGardeners().size() +
+                           " gardeners, " + Runtime.getRuntime().availableProcessors() + " CPUs");
+        System.out.printf("snapshot: %,d bytes, written in %d ms; journal tail: %,d bytes%n",
+                          Files.size(snapshot), writeNanos / 1_000_000,
+                          Files.size(journalFile) - GardenJournal.HEADER_SIZE);
+        system = null;
+
+        long bestLoad = Long.MAX_VALUE;
+        long bestReplay = Long.MAX_VALUE;
+        int restored = 0;
+        for (int run = 0; run < 3; run++) {
+            System.gc();
+            GardenSystem fresh = new GardenSystem(Clock.systemDefaultZone(), new SequentialIdGenerator(), true);
+            long t0 = System.nanoTime();
+            long offset = GardenSnapshot.restore(snapshot, fresh);
+            long t1 = System.nanoTime();
+            GardenJournal.replay(journalFile, fresh, offset);
+            long t2 = System.nanoTime();
+            bestLoad = Math.min(bestLoad, t1 - t0);
+            bestReplay = Math.min(bestReplay, t2 - t1);
+            restored = fresh.getReservations().size();
+        }
+        System.out.printf("restored %,d reservations: snapshot %d ms + tail replay %d ms = %d ms%n",
+                          restored, bestLoad / 1_000_000, bestReplay / 1_000_000,
+                          (bestLoad + bestReplay) / 1_000_000);
+
+        long t0 = System.nanoTime();
+        MappedSnapshot mapped = MappedSnapshot.open(mappedFile);
+        long t1 = System.nanoTime();
+        int confirmed = mapped.countByStatus()[ReservationStatus.CONFIRMED.ordinal()];
+        long t2 = System.nanoTime();
+        Reservation one = mapped.findReservationById(mapped.getReservationId(mapped.getReservationCount() / 2));
+        long t3 = System.nanoTime();
+        System.out.printf("mapped snapshot (%,d bytes): open %.2f ms, count %,d confirmed %d ms, " +
+                          "find + decode one %.2f ms%n",
+                          Files.size(mappedFile), (t1 - t0) / 1e6, confirmed, (t2 - t1) / 1_000_000,
+                          (t3 - t2) / 1e6);
+        if (one == null) {
+            System.out.println("Error: lookup in the mapped snapshot failed");
+        }
+
+        Files.delete(snapshot);
+        Files.delete(journalFile);
+        Files.delete(mappedFile);
+        Files.delete(dir);
+    }
+
+    // past seasons are completed or cancelled; the latest one is confirmed
+    private static GardenSystem buildSystem(int reservations) {
+        int plotCount = Math.max(1, reservations / RESERVATIONS_PER_PLOT);
+        int gardenerCount = Math.max(1000, reservations / 20);
+        List<GardenPlot> plots = new ArrayList<>(plotCount);
+        for (int i = 0; i < plotCount; i++) {
+            GardenPlot plot = new GardenPlot("P" + i, "Plot " + i, 20.0, "Section " + (i % 26));
+            if (i % 10 == 0) {
+                plot.addAllowedCrop("Basil");
+                plot.addAllowedCrop("Mint");
+            }
+            plots.add(plot);
+        }
+        List<Gardener> gardeners = new ArrayList<>(gardenerCount);
+        for (int i = 0; i < gardenerCount; i++) {
+            gardeners.add(new Gardener("G" + i, "Gardener " + i, "g" + i + "@example.com", null));
+        }
+
+        Random random = new Random(1);
+        List<Crop> herbs = new ArrayList<>();
+        herbs.add(new Crop("Basil"));
+        List<Reservation> history = new ArrayList<>(reservations);
+        SequentialIdGenerator ids = new SequentialIdGenerator();
+        for (int i = 0; i < reservations; i++) {
+            int plotIndex = i % plotCount;
+            int season = i / plotCount;
+            LocalDate start = FIRST_SEASON.plusDays(season * 120L);
+            ReservationStatus status = season == RESERVATIONS_PER_PLOT - 1 ? ReservationStatus.CONFIRMED :
+                random.nextInt(10) == 0 ? ReservationStatus.CANCELLED : ReservationStatus.COMPLETED;
+            history.add(new Reservation(ids.nextId(), plots.get(plotIndex),
+                                        gardeners.get(random.nextInt(gardenerCount)),
+                                        new DateRange(start, start.plusDays(89)),
+                                        plotIndex % 10 == 0 ? herbs : null, status));
+        }
+
+        GardenSystem system = new GardenSystem(Clock.systemDefaultZone(), new SequentialIdGenerator(), true);
+        system.bulkLoad(plots.stream(), gardeners.stream(), history.stream());
+        return system;
+    }
+}
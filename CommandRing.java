@@ -0,0 +1,139 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// CommandRing - bounded, preallocated queue from many producers to one writer
+// Producers claim a sequence number with a CAS on 'claimed', fill the slot
+// for it and then publish it by writing the slot's sequence (volatile). The
+// single consumer takes slots strictly in sequence order, so a slot that is
+// claimed but not yet published holds back the ones after it. When the ring
+// is full, producers wait for the consumer to catch up. Slots are reused, so
+// steady-state submission allocates nothing but the caller's future.
+final class CommandRing {
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();  // next sequence to hand out
+    private volatile long consumed;                       // everything below is done
+    private volatile Thread consumer;                     // set while the consumer is parked
+
+    CommandRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i - size);  // "published" one lap ago
+        }
+        this.mask = size - 1;
+    }
+
+    // producer side - blocks while the ring is full
+    void publish(Function<GardenSystem, Object> action, CompletableFuture<Object> result) {
+        long seq;
+        while (true) {
+            seq = claimed.get();
+            if (seq - consumed >= slots.length) {
+                LockSupport.parkNanos(1_000);   // full - let the consumer catch up
+            } else if (claimed.compareAndSet(seq, seq + 1)) {
+                break;
+            }
+        }
+        Slot slot = slots[(int) (seq & mask)];
+        slot.action = action;
+        slot.result = result;
+        slot.sequence = seq;                    // publish
+        Thread waiting = consumer;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+    }
+
+    // consumer side - runs every published command in order and returns how
+    // many ran. Index updates and journal waits are deferred while the batch
+    // runs: the system applies the batch's index updates under one registry
+    // write lock, and the futures complete only after one wait for all of
+    // the batch's records, so the whole batch shares the journal's flushes.
+    // 'consumed' moves once per batch.
+    int drain(GardenSystem system) {
+        long first = consumed;
+        long next = first;
+        Slot slot;
+        RuntimeException batchError = null;
+        system.deferJournalWaits(true);
+        system.deferIndexUpdates(true);
+        try {
+            while ((slot = slots[(int) (next & mask)]).sequence == next) {
+                try {
+                    slot.value = slot.action.apply(system);
+                } catch (RuntimeException e) {
+                    slot.error = e;
+                }
+                next++;
+            }
+        } finally {
+            try {
+                system.deferIndexUpdates(false);
+            } catch (RuntimeException e) {
+                batchError = e;
+            }
+            system.deferJournalWaits(false);
+        }
+        if (next == first) return 0;
+
+        try {
+            system.awaitDeferredJournal();
+        } catch (RuntimeException e) {
+            batchError = batchError != null ? batchError : e;
+        }
+        for (long seq = first; seq < next; seq++) {
+            slot = slots[(int) (seq & mask)];
+            RuntimeException error = slot.error != null ? slot.error : batchError;
+            if (error != null) {
+                slot.result.completeExceptionally(error);
+            } else {
+                slot.result.complete(slot.value);
+            }
+            slot.action = null;
+            slot.result = null;
+            slot.value = null;
+            slot.error = null;
+        }
+        consumed = next;
+        return (int) (next - first);
+    }
+
+    // consumer side - parks until something is published or maxNanos passes
+    void awaitWork(long maxNanos) {
+        consumer = Thread.currentThread();
+        if (!hasWork()) {
+            LockSupport.parkNanos(this, maxNanos);
+        }
+        consumer = null;
+    }
+
+    boolean hasWork() {
+        long next = consumed;
+        return slots[(int) (next & mask)].sequence == next;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    private static final class Slot {
+        volatile long sequence;
+        Function<GardenSystem, Object> action;
+        CompletableFuture<Object> result;
+        Object value;              // outcome, held until the batch is durable
+        RuntimeException error;
+
+        Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+// how a booking batch picks winners among requests for the same plot and days
+public enum ConflictPolicy {
+    FIRST_COME("Earliest request wins"),
+    LOTTERY("Seeded random draw"),
+    MAX_UTILIZATION("Most booked days per plot");
+
+    private final String description;
+
+    ConflictPolicy(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,168 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+// ConflictResolver - picks the winners of a booking batch
+// Works on plain (plotId, gardenerId, packed range) entries that have
+// already passed the per-request checks against the live system, so only
+// conflicts inside the batch and the gardeners' remaining quota are left
+// to decide. The same entries, policy and seed always give the same result.
+final class ConflictResolver {
+
+    private ConflictResolver() {
+    }
+
+    // one candidate request; 'arrival' is its position in the batch
+    static final class Entry {
+        final int arrival;
+        final String plotId;
+        final String gardenerId;
+        final long range;
+
+        Entry(int arrival, String plotId, String gardenerId, long range) {
+            this.arrival = arrival;
+            this.plotId = plotId;
+            this.gardenerId = gardenerId;
+            this.range = range;
+        }
+
+        int start() {
+            return PackedDateRange.start(range);
+        }
+
+        int end() {
+            return PackedDateRange.end(range);
+        }
+    }
+
+    // winners among 'entries', in arrival order; quotaLeft is how many more
+    // active reservations each gardener may hold
+    static List<Entry> resolve(List<Entry> entries, Map<String, Integer> quotaLeft,
+                               ConflictPolicy policy, long seed) {
+        List<Entry> winners;
+        switch (policy) {
+            case LOTTERY:
+                winners = greedy(lotteryOrder(entries, seed), quotaLeft);
+                break;
+            case MAX_UTILIZATION:
+                winners = maxUtilization(entries, quotaLeft);
+                break;
+            default:
+                winners = greedy(entries, quotaLeft);
+        }
+        winners.sort(Comparator.comparingInt(e -> e.arrival));
+        return winners;
+    }
+
+    // takes each entry in turn if its gardener has quota left and it doesn't
+    // clash with one already taken on the same plot
+    private static List<Entry> greedy(List<Entry> order, Map<String, Integer> quotaLeft) {
+        Map<String, Integer> quota = new HashMap<>(quotaLeft);
+        Map<String, TreeMap<Integer, Integer>> takenByPlot = new HashMap<>();  // start -> end
+        List<Entry> winners = new ArrayList<>();
+        for (Entry entry : order) {
+            if (quota.getOrDefault(entry.gardenerId, 0) <= 0) continue;
+            TreeMap<Integer, Integer> taken = takenByPlot.computeIfAbsent(entry.plotId, k -> new TreeMap<>());
+            Map.Entry<Integer, Integer> before = taken.floorEntry(entry.end());
+            if (before != null && before.getValue() >= entry.start()) continue;
+            taken.put(entry.start(), entry.end());
+            quota.merge(entry.gardenerId, -1, Integer::sum);
+            winners.add(entry);
+        }
+        return winners;
+    }
+
+    // a seeded shuffle of the entries put in a fixed order first, so the
+    // draw doesn't depend on which thread's request happened to land first
+    private static List<Entry> lotteryOrder(List<Entry> entries, long seed) {
+        List<Entry> order = new ArrayList<>(entries);
+        order.sort(Comparator.comparing((Entry e) -> e.plotId)
+                             .thenComparing(e -> e.gardenerId)
+                             .thenComparingLong(e -> e.range)
+                             .thenComparingInt(e -> e.arrival));
+        Collections.shuffle(order, new Random(seed));
+        return order;
+    }
+
+    // per plot, the non-overlapping set with the most booked days (weighted
+    // interval scheduling). Gardeners over quota lose their latest wins and
+    // the plots are scheduled again without them.
+    private static List<Entry> maxUtilization(List<Entry> entries, Map<String, Integer> quotaLeft) {
+        List<Entry> candidates = new ArrayList<>(entries);
+        while (true) {
+            Map<String, List<Entry>> byPlot = new LinkedHashMap<>();
+            for (Entry entry : candidates) {
+                byPlot.computeIfAbsent(entry.plotId, k -> new ArrayList<>()).add(entry);
+            }
+            List<Entry> winners = new ArrayList<>();
+            for (List<Entry> plotEntries : byPlot.values()) {
+                winners.addAll(schedule(plotEntries));
+            }
+            winners.sort(Comparator.comparingInt(e -> e.arrival));
+
+            Map<String, Integer> quota = new HashMap<>(quotaLeft);
+            List<Entry> overQuota = new ArrayList<>();
+            for (Entry entry : winners) {
+                if (quota.merge(entry.gardenerId, -1, Integer::sum) < 0) {
+                    overQuota.add(entry);
+                }
+            }
+            if (overQuota.isEmpty()) {
+                return winners;
+            }
+            candidates.removeAll(overQuota);
+        }
+    }
+
+    private static List<Entry> schedule(List<Entry> plotEntries) {
+        List<Entry> byEnd = new ArrayList<>(plotEntries);
+        byEnd.sort(Comparator.comparingInt(Entry::end).thenComparingInt(e -> e.arrival));
+        int n = byEnd.size();
+        int[] ends = new int[n];
+        for (int i = 0; i < n; i++) {
+            ends[i] = byEnd.get(i).end();
+        }
+
+        // best[j] = most days bookable from the first j entries
+        long[] best = new long[n + 1];
+        int[] previous = new int[n];  // entries that end before entry i starts
+        for (int i = 0; i < n; i++) {
+            previous[i] = countEndingBefore(ends, i, byEnd.get(i).start());
+            long take = PackedDateRange.length(byEnd.get(i).range) + best[previous[i]];
+            best[i + 1] = Math.max(best[i], take);
+        }
+
+        List<Entry> chosen = new ArrayList<>();
+        for (int j = n; j > 0; ) {
+            Entry entry = byEnd.get(j - 1);
+            if (PackedDateRange.length(entry.range) + best[previous[j - 1]] > best[j - 1]) {
+                chosen.add(entry);
+                j = previous[j - 1];
+            } else {
+                j--;
+            }
+        }
+        return chosen;
+    }
+
+    // how many of ends[0..limit) are < day (ends is sorted)
+    private static int countEndingBefore(int[] ends, int limit, int day) {
+        int lo = 0;
+        int hi = limit;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ends[mid] < day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -1,4 +1,3 @@
-import java.util.Objects;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Collections;
@@ -9,6 +8,8 @@ public final class Crop {
     private final int minGrowingDays;
     private final Set<Season> bestSeasons;
     private final String description;
+    private final String key;      // normalized name, see CropCatalog
+    private final int ordinal;
 
     // seasons for growing
     public enum Season {
@@ -29,6 +30,8 @@ public final class Crop {
             Collections.unmodifiableSet(new HashSet<>(bestSeasons)) : 
             Collections.emptySet();
         this.description = description != null ? description.trim() : "";
+        this.key = CropCatalog.normalize(name);
+        this.ordinal = CropCatalog.shared().ordinalOf(key);
     }
 
     public Crop(String name) {
@@ -57,6 +60,16 @@ public final class Crop {
         return description;
     }
 
+    // lowercase name used for comparisons
+    public String getKey() {
+        return key;
+    }
+
+    // dense ID shared by every Crop with the same name (ignoring case)
+    public int getOrdinal() {
+        return ordinal;
+    }
+
     // check if date range is long enough for this crop
     public boolean canGrowIn(DateRange dateRange) {
         if (dateRange == null) return false;
@@ -68,13 +81,12 @@ public final class Crop {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Crop crop = (Crop) o;
-        return Objects.equals(name.toLowerCase(), crop.name.toLowerCase());
+        return ordinal == crop.ordinal;
     }
 
-
     @Override
     public int hashCode() {
-        return Objects.hash(name.toLowerCase());
+        return ordinal;
     }
 
     @Override
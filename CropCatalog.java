@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// CropCatalog - one canonical entry per crop name
+// Every distinct normalized (trimmed, lowercase) crop name gets a dense
+// integer ordinal the first time it is seen. Crop, GardenPlot and
+// Reservation compare those ordinals instead of lowercasing names on every
+// check. The catalog can also intern full Crop objects so that the whole
+// program shares one instance per crop.
+public final class CropCatalog {
+    private static final CropCatalog SHARED = new CropCatalog();
+
+    private final Map<String, Integer> ordinals;
+    private String[] keys;    // ordinal -> normalized name
+    private Crop[] crops;     // ordinal -> interned crop (null until interned)
+    private int size;
+
+    private CropCatalog() {
+        this.ordinals = new ConcurrentHashMap<>();
+        this.keys = new String[16];
+        this.crops = new Crop[16];
+        this.size = 0;
+    }
+
+    public static CropCatalog shared() {
+        return SHARED;
+    }
+
+    public static String normalize(String cropName) {
+        return cropName.trim().toLowerCase();
+    }
+
+    // ordinal for a crop name, assigning the next free one if it is new
+    public int ordinalOf(String cropName) {
+        String key = normalize(cropName);
+        Integer ordinal = ordinals.get(key);
+        return ordinal != null ? ordinal : register(key);
+    }
+
+    // ordinal for a crop name, or -1 if no crop by that name was ever seen
+    public int findOrdinal(String cropName) {
+        if (cropName == null) return -1;
+        Integer ordinal = ordinals.get(normalize(cropName));
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public synchronized String keyOf(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IllegalArgumentException("Unknown crop ordinal: " + ordinal);
+        }
+        return keys[ordinal];
+    }
+
+    // returns the shared instance for this crop, making it the shared one if first
+    public synchronized Crop intern(Crop crop) {
+        if (crop == null) return null;
+        int ordinal = crop.getOrdinal();
+        if (crops[ordinal] == null) {
+            crops[ordinal] = crop;
+        }
+        return crops[ordinal];
+    }
+
+    // interned crop by name, or null if none was interned under that name
+    public Crop get(String cropName) {
+        int ordinal = findOrdinal(cropName);
+        return ordinal < 0 ? null : get(ordinal);
+    }
+
+    public synchronized Crop get(int ordinal) {
+        return ordinal >= 0 && ordinal < size ? crops[ordinal] : null;
+    }
+
+    // all interned crops, in ordinal order
+    public synchronized List<Crop> getCrops() {
+        List<Crop> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (crops[i] != null) {
+                result.add(crops[i]);
+            }
+        }
+        return result;
+    }
+
+    // number of distinct crop names seen so far (= next ordinal)
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int register(String key) {
+        Integer existing = ordinals.get(key);
+        if (existing != null) return existing;
+
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            crops = Arrays.copyOf(crops, size * 2);
+        }
+        int ordinal = size++;
+        keys[ordinal] = key;
+        ordinals.put(key, ordinal);
+        return ordinal;
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.Arrays;
+
+// CropMask - a set of crop ordinals stored as bits (see CropCatalog)
+// Used for plot restrictions and planting plans: checking a whole plan
+// against a plot is one AND per 64 crops instead of a lookup per crop.
+// Readers copy the words reference once, so a concurrent add that grows the
+// array can't make them index past it.
+final class CropMask {
+    private static final long[] NO_WORDS = new long[0];
+
+    private volatile long[] words;
+
+    CropMask() {
+        this.words = NO_WORDS;
+    }
+
+    // returns true if the ordinal was not already in the mask
+    boolean add(int ordinal) {
+        int w = ordinal >>> 6;
+        long[] mine = words;
+        if (w >= mine.length) {
+            mine = Arrays.copyOf(mine, w + 1);
+        }
+        long bit = 1L << ordinal;
+        boolean added = (mine[w] & bit) == 0;
+        mine[w] |= bit;
+        words = mine;
+        return added;
+    }
+
+    // returns true if the ordinal was in the mask
+    boolean remove(int ordinal) {
+        int w = ordinal >>> 6;
+        long[] mine = words;
+        if (w >= mine.length) return false;
+        long bit = 1L << ordinal;
+        boolean removed = (mine[w] & bit) != 0;
+        mine[w] &= ~bit;
+        words = mine;
+        return removed;
+    }
+
+    boolean contains(int ordinal) {
+        int w = ordinal >>> 6;
+        long[] mine = words;
+        return ordinal >= 0 && w < mine.length && (mine[w] & (1L << ordinal)) != 0;
+    }
+
+    // true if every ordinal in 'other' is also in this mask
+    boolean containsAll(CropMask other) {
+        long[] theirs = other.words;
+        long[] mine = words;
+        for (int w = 0; w < theirs.length; w++) {
+            long ours = w < mine.length ? mine[w] : 0;
+            if ((theirs[w] & ~ours) != 0) return false;
+        }
+        return true;
+    }
+
+    boolean isEmpty() {
+        for (long w : words) {
+            if (w != 0) return false;
+        }
+        return true;
+    }
+
+    int size() {
+        int count = 0;
+        for (long w : words) {
+            count += Long.bitCount(w);
+        }
+        return count;
+    }
+
+    void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    // ordinals in the mask, ascending
+    int[] toArray() {
+        long[] mine = words.clone();  // stable copy to count and walk
+        int count = 0;
+        for (long w : mine) {
+            count += Long.bitCount(w);
+        }
+        int[] result = new int[count];
+        int i = 0;
+        for (int w = 0; w < mine.length; w++) {
+            long bits = mine[w];
+            while (bits != 0) {
+                result[i++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+}
@@ -1,11 +1,10 @@
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.Objects;
 
 // DateRange - represents a start and end date
+// Stored as one packed long (see PackedDateRange), so comparisons never
+// touch LocalDate; the LocalDate getters build the dates on demand.
 public final class DateRange {
-    private final LocalDate startDate;
-    private final LocalDate endDate;
+    private final long packed;
 
     public DateRange(LocalDate startDate, LocalDate endDate) {
         if (startDate == null || endDate == null) {
@@ -14,59 +13,108 @@ public final class DateRange {
         if (startDate.isAfter(endDate)) {
             throw new IllegalArgumentException("Start date cannot be after end date");
         }
-        this.startDate = startDate;
-        this.endDate = endDate;
+        this.packed = PackedDateRange.of(startDate, endDate);
+    }
+
+    private DateRange(long packed) {
+        this.packed = packed;
+    }
+
+    // rebuild a range from PackedDateRange form
+    public static DateRange fromPacked(long packed) {
+        if (PackedDateRange.start(packed) > PackedDateRange.end(packed)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        return new DateRange(packed);
     }
 
     // getters
 
     public LocalDate getStartDate() {
-        return startDate;
+        return LocalDate.ofEpochDay(PackedDateRange.start(packed));
     }
 
     public LocalDate getEndDate() {
-        return endDate;
+        return LocalDate.ofEpochDay(PackedDateRange.end(packed));
+    }
+
+    public long getStartEpochDay() {
+        return PackedDateRange.start(packed);
+    }
+
+    public long getEndEpochDay() {
+        return PackedDateRange.end(packed);
+    }
+
+    public long getPacked() {
+        return packed;
     }
 
     // utility methods
 
     public boolean isValid() {
-        return !startDate.isAfter(endDate);
+        return PackedDateRange.start(packed) <= PackedDateRange.end(packed);
+    }
+
+    // true if a reservation may cover this range (see PackedDateRange)
+    public boolean isBookable() {
+        return PackedDateRange.isBookable(packed);
     }
 
     // check if two date ranges share any days
     public boolean overlaps(DateRange other) {
         if (other == null) return false;
-        return !this.endDate.isBefore(other.startDate) && !this.startDate.isAfter(other.endDate);
+        return PackedDateRange.overlaps(packed, other.packed);
     }
 
     // check if a date is within this range
     public boolean contains(LocalDate date) {
         if (date == null) return false;
-        return !date.isBefore(startDate) && !date.isAfter(endDate);
+        return PackedDateRange.containsDay(packed, date.toEpochDay());
     }
 
     // check if this range fully contains another range
     public boolean contains(DateRange other) {
         if (other == null) return false;
-        return !other.startDate.isBefore(this.startDate) && !other.endDate.isAfter(this.endDate);
+        return PackedDateRange.contains(packed, other.packed);
     }
 
     // how many days in this range (inclusive)
     public long lengthInDays() {
-        return ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        return PackedDateRange.length(packed);
     }
 
+    // the no-arg checks read the default clock - use the as-of versions
+    // below with the GardenSystem clock's day instead
+
+    @Deprecated
     public boolean isInPast() {
-        return endDate.isBefore(LocalDate.now());
+        return isInPastAsOf(LocalDate.now().toEpochDay());
     }
 
+    @Deprecated
     public boolean isInFuture() {
-        return startDate.isAfter(LocalDate.now());
+        return isInFutureAsOf(LocalDate.now().toEpochDay());
     }
 
+    @Deprecated
     public boolean isCurrentlyActive() {
-        return contains(LocalDate.now());
+        return isActiveOn(LocalDate.now().toEpochDay());
+    }
+
+    // "as-of" versions - take today's epoch day so a caller checking many
+    // ranges (or using a test clock) reads the clock only once
+
+    public boolean isInPastAsOf(long todayEpochDay) {
+        return PackedDateRange.end(packed) < todayEpochDay;
+    }
+
+    public boolean isInFutureAsOf(long todayEpochDay) {
+        return PackedDateRange.start(packed) > todayEpochDay;
+    }
+
+    public boolean isActiveOn(long epochDay) {
+        return PackedDateRange.containsDay(packed, epochDay);
     }
 
     @Override
@@ -74,17 +122,16 @@ public final class DateRange {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         DateRange dateRange = (DateRange) o;
-        return Objects.equals(startDate, dateRange.startDate) &&
-               Objects.equals(endDate, dateRange.endDate);
+        return packed == dateRange.packed;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(startDate, endDate);
+        return Long.hashCode(packed);
     }
 
     @Override
     public String toString() {
-        return startDate + " to " + endDate;
+        return PackedDateRange.toString(packed);
     }
 }
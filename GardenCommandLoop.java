@@ -0,0 +1,117 @@
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// GardenCommandLoop - one writer thread owns a GardenSystem
+// Any thread may submit work; it is queued on a bounded, preallocated
+// CommandRing and applied in submission order by the writer thread, which
+// completes the returned future with the GardenSystem result. The writer
+// drains every command already queued in one pass before it sleeps, so
+// bursts are handled as a batch. The system's reservation index updates
+// (history, status partitions, occupancy counts) for the batch are applied
+// together under one registry write lock at its end. With a journal
+// attached the writer does not wait for each command's records to reach the
+// disk: the batch's futures complete after one wait for all of them, so
+// they share a flush. Since
+// only the writer ever touches the system, the system should be a plain
+// (non-concurrent) GardenSystem and queries that must be consistent with
+// bookings should go through submit().
+public class GardenCommandLoop {
+    private static final long IDLE_PARK_NANOS = 1_000_000;  // re-check at least every 1 ms
+
+    private final GardenSystem system;
+    private final CommandRing ring;
+    private final Thread writer;
+    private volatile boolean running;
+
+    public GardenCommandLoop(GardenSystem system, int capacity) {
+        if (system == null) {
+            throw new IllegalArgumentException("System cannot be null");
+        }
+        this.system = system;
+        this.ring = new CommandRing(capacity);
+        this.writer = new Thread(this::runWriter, "garden-writer");
+        this.writer.setDaemon(true);
+    }
+
+    public GardenCommandLoop(GardenSystem system) {
+        this(system, 1024);
+    }
+
+    public void start() {
+        running = true;
+        writer.start();
+    }
+
+    // applies everything already submitted, then stops the writer; later
+    // submissions fail. Call it once producers have stopped submitting.
+    public void stop() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getCapacity() {
+        return ring.capacity();
+    }
+
+    // any work against the system, run on the writer thread
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submit(Function<GardenSystem, T> command) {
+        if (command == null) {
+            throw new IllegalArgumentException("Command cannot be null");
+        }
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        if (!running) {
+            result.completeExceptionally(new IllegalStateException("Command loop is not running"));
+        } else {
+            ring.publish((Function<GardenSystem, Object>) command, result);
+        }
+        return (CompletableFuture<T>) result;
+    }
+
+    // mutations
+
+    public CompletableFuture<Reservation> createReservation(String plotId,
+                                                            String gardenerId,
+                                                            DateRange range,
+                                                            List<Crop> plantingPlan) {
+        return submit(s -> s.createReservation(plotId, gardenerId, range, plantingPlan));
+    }
+
+    public CompletableFuture<Boolean> confirmReservation(String reservationId) {
+        return submit(s -> s.confirmReservation(reservationId));
+    }
+
+    public CompletableFuture<Boolean> cancelReservation(String reservationId) {
+        return submit(s -> s.cancelReservation(reservationId));
+    }
+
+    public CompletableFuture<Boolean> completeReservation(String reservationId) {
+        return submit(s -> s.completeReservation(reservationId));
+    }
+
+    public CompletableFuture<Boolean> addPlot(GardenPlot plot) {
+        return submit(s -> s.addPlot(plot));
+    }
+
+    public CompletableFuture<Boolean> removePlot(String plotId) {
+        return submit(s -> s.removePlot(plotId));
+    }
+
+    // writer thread
+
+    private void runWriter() {
+        while (running) {
+            if (ring.drain(system) == 0) {
+                ring.awaitWork(IDLE_PARK_NANOS);
+            }
+        }
+        ring.drain(system);  // whatever was queued before stop()
+    }
+}
@@ -0,0 +1,320 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// GardenCsv - plain-text CSV import/export of crops, plots, gardeners and
+// reservations, one file each with a header row:
+//
+//   crops.csv         name,minGrowingDays,seasons,description
+//   plots.csv         plotId,name,sizeSqMeters,location,allowedCrops
+//   gardeners.csv     gardenerId,name,email,phone
+//   reservations.csv  reservationId,plotId,gardenerId,startDate,endDate,status,crops
+//
+// Lists (seasons, allowed crops, planted crops) are ';'-separated inside one
+// field, dates are yyyy-MM-dd and empty optional fields read back as null.
+// Fields holding a comma or quote are quoted with "" escaping; line breaks
+// are written as spaces since every row has to be one line.
+//
+// Readers are lazy parallel streams over Files.lines: the file is not read
+// into memory up front, it is split into chunks at line boundaries and the
+// chunks are parsed on the common pool, keeping file order. Like
+// Files.lines, the returned stream must be closed.
+public final class GardenCsv {
+    static final String CROPS_FILE = "crops.csv";
+    static final String PLOTS_FILE = "plots.csv";
+    static final String GARDENERS_FILE = "gardeners.csv";
+    static final String RESERVATIONS_FILE = "reservations.csv";
+
+    static final String CROPS_HEADER = "name,minGrowingDays,seasons,description";
+    static final String PLOTS_HEADER = "plotId,name,sizeSqMeters,location,allowedCrops";
+    static final String GARDENERS_HEADER = "gardenerId,name,email,phone";
+    static final String RESERVATIONS_HEADER = "reservationId,plotId,gardenerId,startDate,endDate,status,crops";
+
+    private GardenCsv() {
+    }
+
+    // readers
+
+    // crops are interned, so a crop already known keeps its shared instance
+    public static Stream<Crop> readCrops(Path file) throws IOException {
+        return rows(file, CROPS_HEADER).map(fields -> {
+            Set<Crop.Season> seasons = EnumSet.noneOf(Crop.Season.class);
+            for (String season : list(fields[2])) {
+                seasons.add(Crop.Season.valueOf(season.trim().toUpperCase()));
+            }
+            Crop crop = new Crop(fields[0], Integer.parseInt(fields[1].trim()), seasons, fields[3]);
+            return CropCatalog.shared().intern(crop);
+        });
+    }
+
+    public static Stream<GardenPlot> readPlots(Path file) throws IOException {
+        return rows(file, PLOTS_HEADER).map(fields -> {
+            GardenPlot plot = new GardenPlot(fields[0], fields[1], Double.parseDouble(fields[2].trim()),
+                                             optional(fields[3]));
+            for (String crop : list(fields[4])) {
+                plot.addAllowedCrop(crop);
+            }
+            return plot;
+        });
+    }
+
+    public static Stream<Gardener> readGardeners(Path file) throws IOException {
+        return rows(file, GARDENERS_HEADER).map(fields ->
+            new Gardener(fields[0], fields[1], optional(fields[2]), optional(fields[3])));
+    }
+
+    // plots and gardeners are looked up by ID; an unknown one fails the row
+    public static Stream<Reservation> readReservations(Path file,
+                                                       Function<String, GardenPlot> plots,
+                                                       Function<String, Gardener> gardeners) throws IOException {
+        return rows(file, RESERVATIONS_HEADER).map(fields -> {
+            GardenPlot plot = plots.apply(fields[1].trim());
+            Gardener gardener = gardeners.apply(fields[2].trim());
+            if (plot == null || gardener == null) {
+                throw new IllegalArgumentException("Unknown " + (plot == null ? "plot " + fields[1] :
+                                                   "gardener " + fields[2]) + " in reservation " + fields[0]);
+            }
+            DateRange range = new DateRange(LocalDate.parse(fields[3].trim()), LocalDate.parse(fields[4].trim()));
+            List<Crop> plan = new ArrayList<>();
+            for (String name : list(fields[6])) {
+                Crop crop = CropCatalog.shared().get(name);
+                plan.add(crop != null ? crop : CropCatalog.shared().intern(new Crop(name)));
+            }
+            return new Reservation(fields[0], plot, gardener, range, plan,
+                                   ReservationStatus.valueOf(fields[5].trim().toUpperCase()));
+        });
+    }
+
+    // Reads whichever of the four files exist in dir into 'system' with one
+    // bulk load. Reservations may refer to plots and gardeners from the same
+    // directory or already in the system. Returns the crops read.
+    public static List<Crop> load(Path dir, GardenSystem system) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            throw new IOException("Not a directory: " + dir);
+        }
+        List<Crop> crops = new ArrayList<>();
+        if (Files.exists(dir.resolve(CROPS_FILE))) {
+            try (Stream<Crop> rows = readCrops(dir.resolve(CROPS_FILE))) {
+                crops = rows.collect(Collectors.toList());
+            }
+        }
+        return load(dir, system, crops);
+    }
+
+    // same, for a caller that has already read dir's crops.csv (with
+    // readCrops, so they are interned) - the file is not parsed again and
+    // 'crops' is returned as is
+    public static List<Crop> load(Path dir, GardenSystem system, List<Crop> crops) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            throw new IOException("Not a directory: " + dir);
+        }
+        List<GardenPlot> plots = new ArrayList<>();
+        if (Files.exists(dir.resolve(PLOTS_FILE))) {
+            try (Stream<GardenPlot> rows = readPlots(dir.resolve(PLOTS_FILE))) {
+                plots = rows.collect(Collectors.toList());
+            }
+        }
+        List<Gardener> gardeners = new ArrayList<>();
+        if (Files.exists(dir.resolve(GARDENERS_FILE))) {
+            try (Stream<Gardener> rows = readGardeners(dir.resolve(GARDENERS_FILE))) {
+                gardeners = rows.collect(Collectors.toList());
+            }
+        }
+
+        Path reservationFile = dir.resolve(RESERVATIONS_FILE);
+        if (!Files.exists(reservationFile)) {
+            system.bulkLoad(plots.stream(), gardeners.stream(), null);
+            return crops;
+        }
+        Map<String, GardenPlot> plotsById = new HashMap<>(plots.size() * 2);
+        for (GardenPlot plot : plots) {
+            plotsById.put(plot.getPlotID(), plot);
+        }
+        Map<String, Gardener> gardenersById = new HashMap<>(gardeners.size() * 2);
+        for (Gardener gardener : gardeners) {
+            gardenersById.put(gardener.getGardenerID(), gardener);
+        }
+        try (Stream<Reservation> rows = readReservations(reservationFile,
+                id -> plotsById.containsKey(id) ? plotsById.get(id) : system.findPlotById(id),
+                id -> gardenersById.containsKey(id) ? gardenersById.get(id) : system.findGardenerById(id))) {
+            system.bulkLoad(plots.stream(), gardeners.stream(), rows);
+        }
+        return crops;
+    }
+
+    // writers
+
+    public static void writeCrops(Path file, Collection<Crop> crops) throws IOException {
+        writeRows(file, CROPS_HEADER, crops, crop -> new String[] {
+            crop.getName(), String.valueOf(crop.getMinGrowingDays()),
+            seasonNames(crop.getBestSeasons()), crop.getDescription()
+        });
+    }
+
+    public static void writePlots(Path file, Collection<GardenPlot> plots) throws IOException {
+        writeRows(file, PLOTS_HEADER, plots, plot -> new String[] {
+            plot.getPlotID(), plot.getName(), String.valueOf(plot.getSizeSqMeters()), plot.getLocation(),
+            join(plot.getAllowedCrops(), Function.identity())
+        });
+    }
+
+    public static void writeGardeners(Path file, Collection<Gardener> gardeners) throws IOException {
+        writeRows(file, GARDENERS_HEADER, gardeners, gardener -> new String[] {
+            gardener.getGardenerID(), gardener.getName(), gardener.getEmail(), gardener.getPhoneNumber()
+        });
+    }
+
+    public static void writeReservations(Path file, Collection<Reservation> reservations) throws IOException {
+        writeRows(file, RESERVATIONS_HEADER, reservations, reservation -> new String[] {
+            reservation.getReservationID(), reservation.getPlot().getPlotID(),
+            reservation.getGardener().getGardenerID(), reservation.getDateRange().getStartDate().toString(),
+            reservation.getDateRange().getEndDate().toString(), reservation.getStatus().name(),
+            join(reservation.getPlantingPlan(), Crop::getName)
+        });
+    }
+
+    // the system's plots, gardeners and reservations plus the given crop
+    // list, in the files load() reads
+    public static void save(Path dir, GardenSystem system, Collection<Crop> crops) throws IOException {
+        Files.createDirectories(dir);
+        writeCrops(dir.resolve(CROPS_FILE), crops);
+        writePlots(dir.resolve(PLOTS_FILE), system.getPlots());
+        writeGardeners(dir.resolve(GARDENERS_FILE), system.getGardeners());
+        writeReservations(dir.resolve(RESERVATIONS_FILE), system.getReservations());
+    }
+
+    // helpers
+
+    // data rows of a file with the expected header, split into fields; blank
+    // lines and repeated header lines are skipped
+    private static Stream<String[]> rows(Path file, String header) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String first = reader.readLine();
+            if (first == null || !stripBom(first).trim().equals(header)) {
+                throw new IOException("Expected header '" + header + "' in " + file);
+            }
+        }
+        int columns = header.split(",").length;
+        return Files.lines(file, StandardCharsets.UTF_8)
+            .parallel()
+            .map(GardenCsv::stripBom)
+            .filter(line -> !line.isBlank() && !line.trim().equals(header))
+            .map(line -> {
+                String[] fields = parseLine(line);
+                if (fields.length != columns) {
+                    throw new IllegalArgumentException("Expected " + columns + " fields in " + file.getFileName() +
+                                                       " row: " + line);
+                }
+                return fields;
+            });
+    }
+
+    private static <T> void writeRows(Path file, String header, Collection<T> items,
+                                      Function<T, String[]> toFields) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(header);
+            out.newLine();
+            StringBuilder line = new StringBuilder(128);
+            for (T item : items) {
+                line.setLength(0);
+                String[] fields = toFields.apply(item);
+                for (int i = 0; i < fields.length; i++) {
+                    if (i > 0) line.append(',');
+                    appendField(line, fields[i]);
+                }
+                out.append(line);
+                out.newLine();
+            }
+        }
+    }
+
+    // splits one line on commas outside "quoted" fields ("" is a quote)
+    static String[] parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote in row: " + line);
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    static void appendField(StringBuilder line, String value) {
+        if (value == null) return;
+        String text = value.replace("\r\n", " ").replace('\n', ' ').replace('\r', ' ');
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.trim().length() == text.length()) {
+            line.append(text);
+            return;
+        }
+        line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    private static List<String> list(String field) {
+        List<String> items = new ArrayList<>();
+        for (String item : field.split(";")) {
+            if (!item.isBlank()) {
+                items.add(item.trim());
+            }
+        }
+        return items;
+    }
+
+    private static <T> String join(Collection<T> items, Function<T, String> name) {
+        return items.stream().map(name).collect(Collectors.joining(";"));
+    }
+
+    // in declaration order, whatever set the crop holds
+    private static String seasonNames(Set<Crop.Season> seasons) {
+        StringBuilder names = new StringBuilder();
+        for (Crop.Season season : Crop.Season.values()) {
+            if (seasons.contains(season)) {
+                if (names.length() > 0) names.append(';');
+                names.append(season.name());
+            }
+        }
+        return names.toString();
+    }
+
+    private static String optional(String field) {
+        return field.isBlank() ? null : field;
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+}
@@ -0,0 +1,411 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// GardenHttpServer - HTTP front end for a concurrent GardenSystem
+// Built on the JDK's com.sun.net.httpserver, one task per request. Requests
+// run on virtual threads when the JDK has them (21+) and on a cached thread
+// pool otherwise. Parameters come from the query string or a form-encoded
+// body; responses are JSON except the reports, which are plain text. Bad
+// input is a 400; anything unexpected is a 500 rather than a dropped
+// connection.
+//
+//   GET  /plots                                   all plots
+//   GET  /plots/{id}                              one plot
+//   GET  /plots/available?start=&end=[&crop=]     free plots for the dates
+//   POST /gardeners  gardenerId, name [, email, phone]
+//   GET  /gardeners/{id}                          one gardener
+//   GET  /reservations/{id}                       one reservation
+//   POST /reservations  plotId, gardenerId, start, end [, crops=a,b]
+//   POST /reservations/{id}/confirm | cancel | complete
+//   GET  /reports/planting | /reports/availability
+public class GardenHttpServer {
+    private final GardenSystem system;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public GardenHttpServer(GardenSystem system, int port) throws IOException {
+        if (system == null) {
+            throw new IllegalArgumentException("System cannot be null");
+        }
+        if (!system.isConcurrent()) {
+            throw new IllegalArgumentException("HTTP server needs a GardenSystem in concurrent mode");
+        }
+        this.system = system;
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/plots", guarded(this::handlePlots));
+        server.createContext("/gardeners", guarded(this::handleGardeners));
+        server.createContext("/reservations", guarded(this::handleReservations));
+        server.createContext("/reports", guarded(this::handleReports));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // stops accepting requests, waits up to delaySeconds for running ones
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    // actual port - useful when started on port 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // virtual thread per request on JDK 21+, looked up reflectively so the
+    // class still compiles and runs on older JDKs
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // handlers
+
+    // answers 500 for anything a handler did not expect
+    private static HttpHandler guarded(HttpHandler handler) {
+        return exchange -> {
+            try {
+                handler.handle(exchange);
+            } catch (RuntimeException e) {
+                sendError(exchange, 500, "Internal error - " + e);
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private void handlePlots(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = pathParts(exchange, "/plots");
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+            } else if (path.length == 0) {
+                sendJson(exchange, 200, plotsJson(system.getPlots()));
+            } else if (path.length == 1 && path[0].equals("available")) {
+                Map<String, String> params = params(exchange);
+                DateRange range = dateRange(params);
+                String cropName = params.get("crop");
+                List<GardenPlot> found = cropName != null ?
+                    system.findAvailablePlots(range, crop(cropName)) : system.findAvailablePlots(range);
+                sendJson(exchange, 200, plotsJson(found));
+            } else if (path.length == 1) {
+                GardenPlot plot = system.findPlotById(path[0]);
+                if (plot == null) {
+                    sendError(exchange, 404, "Plot not found - " + path[0]);
+                } else {
+                    sendJson(exchange, 200, plotJson(plot));
+                }
+            } else {
+                sendError(exchange, 404, "Not found");
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        }
+    }
+
+    private void handleGardeners(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = pathParts(exchange, "/gardeners");
+            String method = exchange.getRequestMethod();
+            if (path.length == 0 && "POST".equals(method)) {
+                Map<String, String> params = params(exchange);
+                Gardener gardener = new Gardener(required(params, "gardenerId"), required(params, "name"),
+                                                 params.get("email"), params.get("phone"));
+                if (system.registerGardener(gardener)) {
+                    sendJson(exchange, 201, gardenerJson(gardener));
+                } else {
+                    sendError(exchange, 409, "Gardener ID already registered - " + gardener.getGardenerID());
+                }
+            } else if (path.length == 1 && "GET".equals(method)) {
+                Gardener gardener = system.findGardenerById(path[0]);
+                if (gardener == null) {
+                    sendError(exchange, 404, "Gardener not found - " + path[0]);
+                } else {
+                    sendJson(exchange, 200, gardenerJson(gardener));
+                }
+            } else {
+                sendError(exchange, 404, "Not found");
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        }
+    }
+
+    private void handleReservations(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = pathParts(exchange, "/reservations");
+            String method = exchange.getRequestMethod();
+            if (path.length == 0 && "POST".equals(method)) {
+                createReservation(exchange, params(exchange));
+            } else if (path.length == 1 && "GET".equals(method)) {
+                Reservation reservation = system.findReservationById(path[0]);
+                if (reservation == null) {
+                    sendError(exchange, 404, "Reservation not found - " + path[0]);
+                } else {
+                    sendJson(exchange, 200, reservationJson(reservation));
+                }
+            } else if (path.length == 2 && "POST".equals(method)) {
+                changeStatus(exchange, path[0], path[1]);
+            } else {
+                sendError(exchange, 404, "Not found");
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        }
+    }
+
+    private void handleReports(HttpExchange exchange) throws IOException {
+        String[] path = pathParts(exchange, "/reports");
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Method not allowed");
+        } else if (path.length == 1 && path[0].equals("planting")) {
+            send(exchange, 200, "text/plain", system.generatePlantingReport());
+        } else if (path.length == 1 && path[0].equals("availability")) {
+            send(exchange, 200, "text/plain", system.generateAvailabilityReport());
+        } else {
+            sendError(exchange, 404, "Not found");
+        }
+    }
+
+    private void createReservation(HttpExchange exchange, Map<String, String> params) throws IOException {
+        String plotId = required(params, "plotId");
+        String gardenerId = required(params, "gardenerId");
+        DateRange range = dateRange(params);
+        List<Crop> plan = new ArrayList<>();
+        String crops = params.get("crops");
+        if (crops != null && !crops.trim().isEmpty()) {
+            for (String name : crops.split(",")) {
+                plan.add(crop(name));
+            }
+        }
+
+        if (system.findPlotById(plotId) == null) {
+            sendError(exchange, 404, "Plot not found - " + plotId);
+            return;
+        }
+        if (system.findGardenerById(gardenerId) == null) {
+            sendError(exchange, 404, "Gardener not found - " + gardenerId);
+            return;
+        }
+        Reservation reservation = system.createReservation(plotId, gardenerId, range, plan);
+        if (reservation == null) {
+            sendError(exchange, 409, "Reservation rejected - plot taken, crop not allowed or reservation limit reached");
+        } else {
+            sendJson(exchange, 201, reservationJson(reservation));
+        }
+    }
+
+    private void changeStatus(HttpExchange exchange, String reservationId, String action) throws IOException {
+        if (system.findReservationById(reservationId) == null) {
+            sendError(exchange, 404, "Reservation not found - " + reservationId);
+            return;
+        }
+        boolean changed;
+        switch (action) {
+            case "confirm":
+                changed = system.confirmReservation(reservationId);
+                break;
+            case "cancel":
+                changed = system.cancelReservation(reservationId);
+                break;
+            case "complete":
+                changed = system.completeReservation(reservationId);
+                break;
+            default:
+                sendError(exchange, 404, "Unknown action - " + action);
+                return;
+        }
+        Reservation reservation = system.findReservationById(reservationId);
+        if (changed) {
+            sendJson(exchange, 200, reservationJson(reservation));
+        } else {
+            sendError(exchange, 409, "Could not " + action + " reservation " + reservationId +
+                      " (status " + reservation.getStatus() + ")");
+        }
+    }
+
+    // request parsing
+
+    // path segments after the context prefix, e.g. /reservations/R0001/confirm
+    // -> [R0001, confirm]
+    private static String[] pathParts(HttpExchange exchange, String prefix) {
+        String rest = exchange.getRequestURI().getPath().substring(prefix.length());
+        List<String> parts = new ArrayList<>();
+        for (String part : rest.split("/")) {
+            if (!part.isEmpty()) {
+                parts.add(decode(part));
+            }
+        }
+        return parts.toArray(new String[0]);
+    }
+
+    // query string parameters, then form body parameters
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        if ("POST".equals(exchange.getRequestMethod())) {
+            try (InputStream body = exchange.getRequestBody()) {
+                parseForm(new String(body.readAllBytes(), StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> into) {
+        if (form == null || form.isEmpty()) return;
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                into.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+            }
+        }
+    }
+
+    private static String decode(String s) {
+        return URLDecoder.decode(s, StandardCharsets.UTF_8);
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value.trim();
+    }
+
+    private static DateRange dateRange(Map<String, String> params) {
+        try {
+            return new DateRange(LocalDate.parse(required(params, "start")),
+                                 LocalDate.parse(required(params, "end")));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Dates must be yyyy-MM-dd");
+        }
+    }
+
+    // the crop of a name the catalog already knows - never registers a new
+    // one, since every ordinal lives for the life of the process. Names known
+    // only from a plot's allowed crops have an ordinal but no interned Crop;
+    // a plain Crop of that name shares the ordinal.
+    private static Crop crop(String name) {
+        int ordinal = CropCatalog.shared().findOrdinal(name);
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("Unknown crop - " + name.trim());
+        }
+        Crop interned = CropCatalog.shared().get(ordinal);
+        return interned != null ? interned : new Crop(name.trim());
+    }
+
+    // JSON output
+
+    private static String plotsJson(List<GardenPlot> plots) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < plots.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(plotJson(plots.get(i)));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String plotJson(GardenPlot plot) {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"id\":").append(quote(plot.getPlotID()));
+        sb.append(",\"name\":").append(quote(plot.getName()));
+        sb.append(",\"sizeSqMeters\":").append(plot.getSizeSqMeters());
+        sb.append(",\"location\":").append(quote(plot.getLocation()));
+        sb.append(",\"allowedCrops\":[");
+        boolean first = true;
+        for (String crop : plot.getAllowedCrops()) {
+            if (!first) sb.append(',');
+            sb.append(quote(crop));
+            first = false;
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    private static String gardenerJson(Gardener gardener) {
+        return "{\"id\":" + quote(gardener.getGardenerID()) +
+               ",\"name\":" + quote(gardener.getName()) +
+               ",\"activeReservations\":" + gardener.getActiveReservationCount() + "}";
+    }
+
+    private static String reservationJson(Reservation reservation) {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"id\":").append(quote(reservation.getReservationID()));
+        sb.append(",\"plotId\":").append(quote(reservation.getPlot().getPlotID()));
+        sb.append(",\"gardenerId\":").append(quote(reservation.getGardener().getGardenerID()));
+        sb.append(",\"start\":").append(quote(reservation.getDateRange().getStartDate().toString()));
+        sb.append(",\"end\":").append(quote(reservation.getDateRange().getEndDate().toString()));
+        sb.append(",\"status\":").append(quote(reservation.getStatus().name()));
+        sb.append(",\"crops\":[");
+        List<Crop> plan = reservation.getPlantingPlan();
+        for (int i = 0; i < plan.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(quote(plan.get(i).getName()));
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    private static String quote(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    // responses
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        send(exchange, status, "application/json", json);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, "{\"error\":" + quote(message) + "}");
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
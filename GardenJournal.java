@@ -0,0 +1,481 @@
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// GardenJournal - append-only binary write-ahead journal for a GardenSystem
+//
+// Every mutation is appended as one record:
+//   int length | int crc32 of body | body = byte type + payload
+// after a 6-byte header (magic + version). Appends only copy bytes into an
+// in-memory batch; a flusher thread writes the batch and forces it to disk
+// once, then wakes everyone whose record was in it (group commit). Under
+// load the batch grows while the previous force is running, so many
+// bookings share one fsync.
+//
+// A failed write or force is final: the flusher stops, waiters get the
+// error and every later append is refused, so a GardenSystem using the
+// journal stops accepting changes (fail-stop) instead of running ahead of
+// what is on disk.
+//
+// Replay applies records idempotently - records already reflected in the
+// system are skipped - and stops at the first torn or corrupt record.
+public class GardenJournal implements Closeable {
+    static final int MAGIC = 0x474A4E4C;   // "GJNL"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 6;
+
+    // record types
+    static final byte PLOT_ADDED = 1;
+    static final byte PLOT_REMOVED = 2;
+    static final byte GARDENER_REGISTERED = 3;
+    static final byte GARDENER_REMOVED = 4;
+    static final byte RESERVATION_CREATED = 5;
+    static final byte STATUS_CHANGED = 6;
+    static final byte CROP_ALLOWED = 7;
+    static final byte CROP_DISALLOWED = 8;
+
+    private final FileChannel channel;
+    private final Thread flusher;
+    private final Object lock = new Object();
+    private final ThreadLocal<long[]> lastOwnRecord = ThreadLocal.withInitial(() -> new long[1]);
+    // guarded by lock
+    private ByteArrayOutputStream batch = new ByteArrayOutputStream();
+    private long appendedSequence;  // records handed to append()
+    private long durableSequence;   // records forced to disk
+    private long durableOffset;     // file size once the durable records are on disk
+    private long appendedOffset;    // file size once everything appended is on disk
+    private long flushCount;
+    private IOException failure;
+    private boolean closed;
+
+    private GardenJournal(FileChannel channel, long endOffset) {
+        this.channel = channel;
+        this.durableOffset = endOffset;
+        this.appendedOffset = endOffset;
+        this.flusher = new Thread(this::runFlusher, "garden-journal");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // opens the journal for appending, creating it if needed; a torn record
+    // left at the end by a crash is cut off
+    public static GardenJournal open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                               StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long end;
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION);
+                header.flip();
+                channel.write(header, 0);
+                channel.force(true);
+                end = HEADER_SIZE;
+            } else {
+                end = scan(channel, HEADER_SIZE, null);
+                channel.truncate(end);
+            }
+            channel.position(end);
+            return new GardenJournal(channel, end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // getters
+
+    // records forced to disk so far
+    public long getDurableSequence() {
+        synchronized (lock) {
+            return durableSequence;
+        }
+    }
+
+    // how many times the journal was forced to disk
+    public long getFlushCount() {
+        synchronized (lock) {
+            return flushCount;
+        }
+    }
+
+    // journal size once everything appended so far is on disk - a replay
+    // starting here picks up exactly the records appended after this call
+    public long getAppendedOffset() {
+        synchronized (lock) {
+            return appendedOffset;
+        }
+    }
+
+    public long getDurableOffset() {
+        synchronized (lock) {
+            return durableOffset;
+        }
+    }
+
+    // appending (package-private - called by GardenSystem under its locks)
+
+    long plotAdded(GardenPlot plot) {
+        return append(PLOT_ADDED, out -> {
+            out.writeUTF(plot.getPlotID());
+            out.writeUTF(plot.getName());
+            out.writeDouble(plot.getSizeSqMeters());
+            writeNullable(out, plot.getLocation());
+            int[] crops = plot.allowedCropOrdinals();
+            out.writeInt(crops.length);
+            for (int ordinal : crops) {
+                out.writeUTF(CropCatalog.shared().keyOf(ordinal));
+            }
+        });
+    }
+
+    long plotRemoved(String plotId) {
+        return append(PLOT_REMOVED, out -> out.writeUTF(plotId));
+    }
+
+    long gardenerRegistered(Gardener gardener) {
+        return append(GARDENER_REGISTERED, out -> {
+            out.writeUTF(gardener.getGardenerID());
+            out.writeUTF(gardener.getName());
+            writeNullable(out, gardener.getEmail());
+            writeNullable(out, gardener.getPhoneNumber());
+        });
+    }
+
+    long gardenerRemoved(String gardenerId) {
+        return append(GARDENER_REMOVED, out -> out.writeUTF(gardenerId));
+    }
+
+    long reservationCreated(Reservation reservation) {
+        return append(RESERVATION_CREATED, out -> {
+            out.writeUTF(reservation.getReservationID());
+            out.writeUTF(reservation.getPlot().getPlotID());
+            out.writeUTF(reservation.getGardener().getGardenerID());
+            out.writeLong(reservation.getPackedRange());
+            out.writeByte(reservation.getStatus().ordinal());
+            List<Crop> plan = reservation.getPlantingPlan();
+            out.writeInt(plan.size());
+            for (Crop crop : plan) {
+                out.writeUTF(crop.getName());
+            }
+        });
+    }
+
+    long statusChanged(Reservation reservation, ReservationStatus newStatus) {
+        return append(STATUS_CHANGED, out -> {
+            out.writeUTF(reservation.getReservationID());
+            out.writeByte(newStatus.ordinal());
+        });
+    }
+
+    long cropAllowed(GardenPlot plot, int cropOrdinal) {
+        return append(CROP_ALLOWED, out -> {
+            out.writeUTF(plot.getPlotID());
+            out.writeUTF(CropCatalog.shared().keyOf(cropOrdinal));
+        });
+    }
+
+    long cropDisallowed(GardenPlot plot, int cropOrdinal) {
+        return append(CROP_DISALLOWED, out -> {
+            out.writeUTF(plot.getPlotID());
+            out.writeUTF(CropCatalog.shared().keyOf(cropOrdinal));
+        });
+    }
+
+    // everything appended so far
+    long appendedSequence() {
+        synchronized (lock) {
+            return appendedSequence;
+        }
+    }
+
+    // blocks until record 'sequence' is on disk
+    public void awaitDurable(long sequence) {
+        synchronized (lock) {
+            while (durableSequence < sequence && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the journal", e);
+                }
+            }
+            if (durableSequence < sequence) {
+                throw new UncheckedIOException("Journal write failed", failure);
+            }
+        }
+    }
+
+    // blocks until everything appended so far is on disk
+    public void sync() {
+        awaitDurable(appendedSequence());
+    }
+
+    // blocks until the calling thread's last record is on disk
+    void awaitOwnRecords() {
+        awaitDurable(lastOwnRecord.get()[0]);
+    }
+
+    // true once a write has failed - nothing more will be journaled
+    public boolean hasFailed() {
+        synchronized (lock) {
+            return failure != null;
+        }
+    }
+
+    // throws if append() would refuse a record: after a failed write or close
+    void checkWritable() {
+        synchronized (lock) {
+            checkWritableLocked();
+        }
+    }
+
+    private void checkWritableLocked() {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal write failed", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (lock) {
+            if (failure != null) throw failure;
+        }
+    }
+
+    private interface Payload {
+        void writeTo(DataOutputStream out) throws IOException;
+    }
+
+    private long append(byte type, Payload payload) {
+        byte[] body;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            payload.writeTo(out);
+            body = bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // in-memory stream - doesn't happen
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        synchronized (lock) {
+            checkWritableLocked();
+            if (batch.size() == 0) {
+                lock.notifyAll();   // the flusher only sleeps on an empty batch
+            }
+            writeInt(batch, body.length);
+            writeInt(batch, (int) crc.getValue());
+            batch.write(body, 0, body.length);
+            appendedOffset += 8 + body.length;
+            appendedSequence++;
+            lastOwnRecord.get()[0] = appendedSequence;
+            return appendedSequence;
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int v) {
+        out.write(v >>> 24);
+        out.write(v >>> 16);
+        out.write(v >>> 8);
+        out.write(v);
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    // flusher thread - one write + force per batch
+
+    private void runFlusher() {
+        while (true) {
+            ByteArrayOutputStream toWrite;
+            long batchSequence;
+            long batchOffset;
+            synchronized (lock) {
+                while (batch.size() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        failure = new InterruptedIOException("Journal flusher was interrupted");
+                        lock.notifyAll();
+                        return;
+                    }
+                }
+                if (batch.size() == 0) return;  // closed and drained
+                toWrite = batch;
+                batch = new ByteArrayOutputStream(Math.max(256, toWrite.size()));
+                batchSequence = appendedSequence;
+                batchOffset = appendedOffset;
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(toWrite.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            synchronized (lock) {
+                durableSequence = batchSequence;
+                durableOffset = batchOffset;
+                flushCount++;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // replay
+
+    // applies the whole journal to the system; returns the offset replay
+    // stopped at (end of the last good record)
+    public static long replay(Path file, GardenSystem system) throws IOException {
+        return replay(file, system, HEADER_SIZE);
+    }
+
+    // applies the records from fromOffset on. The system must not be
+    // journaling to this file while it replays.
+    public static long replay(Path file, GardenSystem system, long fromOffset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scan(channel, fromOffset, system);
+        }
+    }
+
+    // walks the records from 'offset', applying them if system != null;
+    // returns where the valid records end
+    private static long scan(FileChannel channel, long offset, GardenSystem system) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getShort() != VERSION) {
+            throw new IOException("Not a garden journal (or an unsupported version)");
+        }
+        if (offset < HEADER_SIZE) {
+            throw new IllegalArgumentException("Replay offset is inside the journal header");
+        }
+
+        DataInputStream in = new DataInputStream(
+            new java.io.BufferedInputStream(Channels.newInputStream(channel.position(offset)), 1 << 16));
+        long position = offset;
+        CRC32 crc = new CRC32();
+        while (true) {
+            int length;
+            int checksum;
+            byte[] body;
+            try {
+                length = in.readInt();
+                checksum = in.readInt();
+                if (length <= 0 || length > channel.size() - position - 8) break;  // torn length
+                body = new byte[length];
+                in.readFully(body);
+            } catch (EOFException e) {
+                break;
+            }
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) break;
+            if (system != null) {
+                apply(body, system);
+            }
+            position += 8 + length;
+        }
+        return position;
+    }
+
+    private static void apply(byte[] body, GardenSystem system) throws IOException {
+        DataInputStream in = new DataInputStream(new java.io.ByteArrayInputStream(body));
+        byte type = in.readByte();
+        switch (type) {
+            case PLOT_ADDED: {
+                GardenPlot plot = new GardenPlot(in.readUTF(), in.readUTF(), in.readDouble(), readNullable(in));
+                int crops = in.readInt();
+                for (int i = 0; i < crops; i++) {
+                    plot.addAllowedCrop(in.readUTF());
+                }
+                system.addPlot(plot);  // no-op if already there
+                break;
+            }
+            case PLOT_REMOVED:
+                system.removePlot(in.readUTF());
+                break;
+            case GARDENER_REGISTERED:
+                system.registerGardener(new Gardener(in.readUTF(), in.readUTF(), readNullable(in), readNullable(in)));
+                break;
+            case GARDENER_REMOVED:
+                system.removeGardener(in.readUTF());
+                break;
+            case RESERVATION_CREATED: {
+                String id = in.readUTF();
+                String plotId = in.readUTF();
+                String gardenerId = in.readUTF();
+                long range = in.readLong();
+                ReservationStatus status = ReservationStatus.values()[in.readByte()];
+                int crops = in.readInt();
+                List<Crop> plan = new ArrayList<>(crops);
+                for (int i = 0; i < crops; i++) {
+                    String name = in.readUTF();
+                    Crop crop = CropCatalog.shared().get(name);
+                    plan.add(crop != null ? crop : new Crop(name));
+                }
+                system.restoreReservation(id, plotId, gardenerId, DateRange.fromPacked(range), plan, status);
+                break;
+            }
+            case STATUS_CHANGED:
+                system.restoreStatus(in.readUTF(), ReservationStatus.values()[in.readByte()]);
+                break;
+            case CROP_ALLOWED: {
+                GardenPlot plot = system.findPlotById(in.readUTF());
+                String crop = in.readUTF();
+                if (plot != null) plot.addAllowedCrop(crop);
+                break;
+            }
+            case CROP_DISALLOWED: {
+                GardenPlot plot = system.findPlotById(in.readUTF());
+                String crop = in.readUTF();
+                if (plot != null) plot.removeAllowedCrop(crop);
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+}
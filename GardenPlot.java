@@ -1,19 +1,35 @@
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
 
 // GardenPlot - a plot that gardeners can reserve
+// Reservation bookkeeping changes under the plot's write lock. isAvailable
+// and isOccupiedOn read the occupancy calendar optimistically: they never
+// block and only retry (under the read lock) if a booking changed the plot
+// while they were reading. getActiveReservations reads a snapshot that is
+// republished after every change, so reports never wait on a booking.
+// Queries that walk the full reservation list share the read lock.
 public class GardenPlot {
     private final String plotID;
     private String name;
     private double sizeSqMeters;
     private String location;
-    private final Set<String> allowedCrops;  // empty = all crops allowed
+    private final CropMask allowedCrops;     // crop ordinals, empty = all crops allowed
     private final List<Reservation> reservations;
-    private Gardener currentGardener;
+    private final ReservationPartitions byStatus;
+    private volatile List<Reservation> activeSnapshot = Collections.emptyList(); // byStatus.getActive()
+    private final IntervalIndex confirmed;   // CONFIRMED reservations by date
+    private final OccupancyCalendar calendar; // days taken by CONFIRMED reservations
+    private volatile Gardener currentGardener;
+    private GardenSystem system;              // set while the plot is in a GardenSystem
+    private long systemOrder;                 // position among that system's plots
+    private final StampedLock lock = new StampedLock();
 
     // constructors
 
@@ -25,8 +41,11 @@ public class GardenPlot {
         this.name = name != null ? name.trim() : plotID;
         this.sizeSqMeters = Math.max(0, sizeSqMeters);
         this.location = location;
-        this.allowedCrops = new HashSet<>();
+        this.allowedCrops = new CropMask();
         this.reservations = new ArrayList<>();
+        this.byStatus = new ReservationPartitions();
+        this.confirmed = new IntervalIndex();
+        this.calendar = new OccupancyCalendar();
         this.currentGardener = null;
     }
 
@@ -60,14 +79,29 @@ public class GardenPlot {
         return currentGardener;
     }
 
+    // lowercase names of the allowed crops
     public Set<String> getAllowedCrops() {
-        return Collections.unmodifiableSet(allowedCrops);
+        Set<String> names = new LinkedHashSet<>();
+        for (int ordinal : allowedCropOrdinals()) {
+            names.add(CropCatalog.shared().keyOf(ordinal));
+        }
+        return Collections.unmodifiableSet(names);
     }
 
     public List<Reservation> getReservations() {
         return Collections.unmodifiableList(reservations);
     }
 
+    // copy taken under the plot's lock - safe while other threads book it
+    List<Reservation> copyReservations() {
+        long stamp = lock.readLock();
+        try {
+            return new ArrayList<>(reservations);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
     // setters
 
     public void setName(String name) {
@@ -86,31 +120,66 @@ public class GardenPlot {
 
     public void addAllowedCrop(String cropName) {
         if (cropName != null && !cropName.trim().isEmpty()) {
-            allowedCrops.add(cropName.trim().toLowerCase());
+            if (system != null) {
+                system.checkJournal();
+            }
+            int ordinal = CropCatalog.shared().ordinalOf(cropName);
+            if (allowedCrops.add(ordinal) && system != null) {
+                system.allowedCropAdded(this, ordinal);
+            }
         }
     }
 
     public void removeAllowedCrop(String cropName) {
-        if (cropName != null) {
-            allowedCrops.remove(cropName.trim().toLowerCase());
+        int ordinal = CropCatalog.shared().findOrdinal(cropName);
+        if (ordinal >= 0) {
+            removeAllowedCrop(ordinal);
         }
     }
 
     public void clearCropRestrictions() {
-        allowedCrops.clear();
+        for (int ordinal : allowedCropOrdinals()) {
+            removeAllowedCrop(ordinal);
+        }
+    }
+
+    private void removeAllowedCrop(int ordinal) {
+        if (system != null) {
+            system.checkJournal();
+        }
+        if (allowedCrops.remove(ordinal) && system != null) {
+            system.allowedCropRemoved(this, ordinal);
+        }
     }
 
     // check if crop is allowed (empty list = everything allowed)
     public boolean isCropAllowed(Crop crop) {
         if (crop == null) return false;
-        if (allowedCrops.isEmpty()) return true;
-        return allowedCrops.contains(crop.getName().toLowerCase());
+        return isCropAllowed(crop.getOrdinal());
     }
 
     public boolean isCropAllowed(String cropName) {
         if (cropName == null) return false;
         if (allowedCrops.isEmpty()) return true;
-        return allowedCrops.contains(cropName.toLowerCase());
+        return isCropAllowed(CropCatalog.shared().findOrdinal(cropName));
+    }
+
+    boolean isCropAllowed(int cropOrdinal) {
+        return allowedCrops.isEmpty() || allowedCrops.contains(cropOrdinal);
+    }
+
+    // whole planting plan in one go - one AND per 64 crops
+    boolean areCropsAllowed(CropMask plan) {
+        return allowedCrops.isEmpty() || allowedCrops.containsAll(plan);
+    }
+
+    boolean hasCropRestrictions() {
+        return !allowedCrops.isEmpty();
+    }
+
+    // ordinals of the allowed crops, ascending
+    int[] allowedCropOrdinals() {
+        return allowedCrops.toArray();
     }
 
     // availability
@@ -118,59 +187,263 @@ public class GardenPlot {
     // only confirmed reservations block the plot
     public boolean isAvailable(DateRange dateRange) {
         if (dateRange == null) return false;
-        
-        for (Reservation res : reservations) {
-            if (res.getStatus().occupiesPlot() && 
-                res.getDateRange().overlaps(dateRange)) {
-                return false;
-            }
-        }
-        return true;
+        long range = dateRange.getPacked();
+        return !isAnyDayTaken(PackedDateRange.start(range), PackedDateRange.end(range));
     }
 
+    // use isOccupiedOn with the system clock's day
+    @Deprecated
     public boolean isCurrentlyOccupied() {
-        for (Reservation res : reservations) {
-            if (res.getStatus().occupiesPlot() && 
-                res.getDateRange().isCurrentlyActive()) {
-                return true;
-            }
+        return isOccupiedOn(today().toEpochDay());
+    }
+
+    public boolean isOccupiedOn(long epochDay) {
+        return isAnyDayTaken(epochDay, epochDay);
+    }
+
+    // optimistic calendar read - the calendar never indexes out of bounds
+    // even mid-update, so a torn read is just thrown away and redone
+    private boolean isAnyDayTaken(long startDay, long endDay) {
+        long stamp = lock.tryOptimisticRead();
+        boolean taken = calendar.isAnySet(startDay, endDay);
+        if (lock.validate(stamp)) {
+            return taken;
+        }
+        stamp = lock.readLock();
+        try {
+            return calendar.isAnySet(startDay, endDay);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // a reservation's status as of its latest journaled change - snapshots
+    // read statuses this way so none is older than the journal offset they
+    // record
+    ReservationStatus statusOf(Reservation reservation) {
+        long stamp = lock.tryOptimisticRead();
+        ReservationStatus status = reservation.getStatus();
+        if (lock.validate(stamp)) {
+            return status;
+        }
+        stamp = lock.readLock();
+        try {
+            return reservation.getStatus();
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return false;
     }
 
     public List<Reservation> getActiveReservations() {
-        List<Reservation> active = new ArrayList<>();
-        for (Reservation res : reservations) {
-            if (res.getStatus().isActive()) {
-                active.add(res);
-            }
+        return new ArrayList<>(activeSnapshot);
+    }
+
+    public boolean hasActiveReservations() {
+        long stamp = lock.tryOptimisticRead();
+        int count = byStatus.activeCount();
+        if (lock.validate(stamp)) {
+            return count > 0;
+        }
+        stamp = lock.readLock();
+        try {
+            return byStatus.activeCount() > 0;
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return active;
+    }
+
+    // earliest free stretch of lengthInDays days starting on or after
+    // notBefore, or null if none fits in the bookable years
+    public DateRange findEarliestWindow(int lengthInDays, LocalDate notBefore) {
+        if (lengthInDays < 1 || notBefore == null) return null;
+        long from = Math.max(notBefore.toEpochDay(), PackedDateRange.FIRST_BOOKABLE_DAY);
+        if (from + lengthInDays - 1 > PackedDateRange.LAST_BOOKABLE_DAY) return null;
+        int start;
+        long stamp = lock.readLock();
+        try {
+            start = confirmed.earliestGap((int) from, lengthInDays);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        if ((long) start + lengthInDays - 1 > PackedDateRange.LAST_BOOKABLE_DAY) return null;
+        return DateRange.fromPacked(PackedDateRange.pack(start, start + lengthInDays - 1));
     }
 
     public List<Reservation> getConflictingReservations(DateRange dateRange) {
-        List<Reservation> conflicts = new ArrayList<>();
-        if (dateRange == null) return conflicts;
-        
-        for (Reservation res : reservations) {
-            if (res.getStatus().occupiesPlot() && 
-                res.getDateRange().overlaps(dateRange)) {
-                conflicts.add(res);
-            }
+        if (dateRange == null) return new ArrayList<>();
+        long stamp = lock.readLock();
+        try {
+            return confirmed.overlapping(dateRange.getPacked());
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return conflicts;
     }
 
     // reservation management (package-private - used by GardenSystem)
 
     void addReservation(Reservation reservation) {
-        if (reservation != null && !reservations.contains(reservation)) {
-            reservations.add(reservation);
+        if (reservation == null) return;
+        long stamp = lock.writeLock();
+        try {
+            if (!reservations.contains(reservation)) {
+                if (reservation.getStatus().occupiesPlot()) {
+                    occupy(reservation);
+                }
+                reservations.add(reservation);
+                byStatus.add(reservation);
+                publishActive();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
         }
     }
 
     void removeReservation(Reservation reservation) {
-        reservations.remove(reservation);
+        long stamp = lock.writeLock();
+        try {
+            if (!reservations.remove(reservation)) return;
+
+            byStatus.remove(reservation);
+            if (reservation.getStatus().occupiesPlot()) {
+                vacate(reservation);
+            }
+            publishActive();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // throws if loadReservations(batch) would double-book the plot, before
+    // anything changes - lets a bulk load check every plot first
+    void checkLoadable(List<Reservation> batch) {
+        List<Reservation> occupying = new ArrayList<>();
+        for (Reservation reservation : batch) {
+            if (reservation.getStatus().occupiesPlot()) {
+                occupying.add(reservation);
+            }
+        }
+        occupying.sort(Comparator.comparingInt(r -> PackedDateRange.start(r.getPackedRange())));
+        long stamp = lock.readLock();
+        try {
+            Reservation latestEnding = null;
+            for (Reservation reservation : occupying) {
+                long range = reservation.getPackedRange();
+                Reservation clash = latestEnding != null &&
+                    PackedDateRange.end(latestEnding.getPackedRange()) >= PackedDateRange.start(range) ?
+                    latestEnding : null;
+                if (clash == null && confirmed.overlapsAny(range)) {
+                    clash = confirmed.overlapping(range).get(0);
+                }
+                if (clash != null) {
+                    throw new IllegalStateException("Plot " + plotID + " is already booked by " +
+                                                    clash.getReservationID() + " for " + clash.getDateRange());
+                }
+                if (latestEnding == null ||
+                    PackedDateRange.end(range) > PackedDateRange.end(latestEnding.getPackedRange())) {
+                    latestEnding = reservation;
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // bulk loading - appends reservations and builds the indexes in one go.
+    // The caller guarantees they are new to this plot; throws if two
+    // confirmed ones overlap (see checkLoadable).
+    void loadReservations(List<Reservation> batch) {
+        long stamp = lock.writeLock();
+        try {
+            for (Reservation reservation : batch) {
+                if (reservation.getStatus().occupiesPlot()) {
+                    occupy(reservation);
+                }
+                byStatus.add(reservation);
+            }
+            reservations.addAll(batch);
+            publishActive();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // called by Reservation to change its status - keeps the confirmed
+    // index current, refuses a confirm that would double-book the plot and
+    // sets the new status before the write lock is released, so statusOf
+    // never sees a change the journal has but the reservation lacks. If the
+    // system refuses the change the plot and reservation are left as they were.
+    void statusChanging(Reservation reservation, ReservationStatus newStatus) {
+        long stamp = lock.writeLock();
+        try {
+            if (!byStatus.isTrackedActive(reservation)) {
+                reservation.setStatus(newStatus);
+                return;
+            }
+
+            if (newStatus.occupiesPlot()) {
+                occupy(reservation);   // first, so a clash is refused before the system hears of it
+            }
+            if (system != null) {
+                try {
+                    system.statusChanging(reservation, newStatus);
+                } catch (RuntimeException e) {
+                    if (newStatus.occupiesPlot()) {
+                        vacate(reservation);
+                    }
+                    throw e;
+                }
+            }
+            if (!newStatus.occupiesPlot() && reservation.getStatus().occupiesPlot()) {
+                vacate(reservation);
+            }
+            byStatus.move(reservation, newStatus);
+            reservation.setStatus(newStatus);
+            if (newStatus.isTerminal()) {
+                publishActive();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // caller holds the write lock
+    private void publishActive() {
+        activeSnapshot = Collections.unmodifiableList(byStatus.getActive());
+    }
+
+    private void occupy(Reservation reservation) {
+        long range = reservation.getPackedRange();
+        confirmed.add(reservation);  // throws before anything changes on a clash
+        calendar.set(PackedDateRange.start(range), PackedDateRange.end(range));
+    }
+
+    private void vacate(Reservation reservation) {
+        long range = reservation.getPackedRange();
+        if (confirmed.remove(reservation)) {
+            calendar.clear(PackedDateRange.start(range), PackedDateRange.end(range));
+        }
+    }
+
+    // system membership (package-private - used by GardenSystem)
+
+    void attach(GardenSystem system, long order) {
+        this.system = system;
+        this.systemOrder = order;
+    }
+
+    void detach() {
+        this.system = null;
+    }
+
+    long getSystemOrder() {
+        return systemOrder;
+    }
+
+    // today by the owning system's clock - the default clock only while the
+    // plot is in no system
+    LocalDate today() {
+        GardenSystem owner = system;
+        return owner != null ? owner.today() : LocalDate.now();
     }
 
     public void assign(Gardener gardener) {
@@ -200,20 +473,26 @@ public class GardenPlot {
                "id='" + plotID + '\'' +
                ", name='" + name + '\'' +
                ", size=" + sizeSqMeters + "m²" +
-               ", occupied=" + isCurrentlyOccupied() +
+               ", occupied=" + isOccupiedOn(today().toEpochDay()) +
                '}';
     }
 
+    // use toDetailedString(LocalDate) with the system clock's day
+    @Deprecated
     public String toDetailedString() {
+        return toDetailedString(today());
+    }
+
+    public String toDetailedString(LocalDate today) {
         StringBuilder sb = new StringBuilder();
         sb.append("Plot: ").append(name).append(" (").append(plotID).append(")\n");
         sb.append("  Size: ").append(sizeSqMeters).append(" m²\n");
         if (location != null) {
             sb.append("  Location: ").append(location).append("\n");
         }
-        sb.append("  Currently Occupied: ").append(isCurrentlyOccupied() ? "Yes" : "No").append("\n");
+        sb.append("  Currently Occupied: ").append(isOccupiedOn(today.toEpochDay()) ? "Yes" : "No").append("\n");
         if (!allowedCrops.isEmpty()) {
-            sb.append("  Allowed Crops: ").append(allowedCrops).append("\n");
+            sb.append("  Allowed Crops: ").append(getAllowedCrops()).append("\n");
         }
         sb.append("  Active Reservations: ").append(getActiveReservations().size());
         return sb.toString();
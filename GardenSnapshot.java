@@ -0,0 +1,247 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// GardenSnapshot - the whole state of a GardenSystem in one binary file
+//
+// Holds the plots (with crop restrictions), gardeners, reservations with
+// their statuses, the reservation ID counter and the journal offset the
+// snapshot is current up to. Startup restores the snapshot with one bulk
+// load and replays only the journal written after that offset (recover).
+//
+// Layout: header (magic, version, ID sequence, journal offset), then a crop
+// table, plots, gardeners and reservations. Reservations refer to their
+// plot, gardener and crops by position in those tables, so the bulk of the
+// file is fixed-size numbers. Strings are int length + UTF-8 (-1 = null).
+//
+// A snapshot of a live system is fuzzy: the journal offset is taken first
+// and later changes may or may not be in the snapshot, which is fine since
+// journal replay skips what the system already reflects. Every change whose
+// record is before the offset is in the snapshot - state is updated before
+// its record is appended, and statuses are read under the plot lock they
+// change under (GardenPlot.statusOf). Reservations whose plot or gardener
+// has since been removed are left out.
+public final class GardenSnapshot {
+    static final int MAGIC = 0x47534E50;   // "GSNP"
+    static final short VERSION = 1;
+
+    private GardenSnapshot() {
+    }
+
+    // writes to a temporary file first and renames it over 'file', so a
+    // crash mid-write leaves the previous snapshot intact
+    public static void write(Path file, GardenSystem system, long journalOffset) throws IOException {
+        List<GardenPlot> plots = new ArrayList<>(system.getPlots());
+        List<Gardener> gardeners = new ArrayList<>(system.getGardeners());
+        List<Reservation> reservations = system.getReservations();
+        long idSequence = system.getIdGenerator().currentSequence();
+
+        Map<GardenPlot, Integer> plotIndex = indexOf(plots);
+        Map<Gardener, Integer> gardenerIndex = indexOf(gardeners);
+        Map<String, Integer> cropIndex = new HashMap<>();
+        List<Crop> crops = new ArrayList<>();
+        List<Reservation> kept = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            if (!plotIndex.containsKey(reservation.getPlot()) ||
+                !gardenerIndex.containsKey(reservation.getGardener())) {
+                continue;
+            }
+            for (Crop crop : reservation.getPlantingPlan()) {
+                if (cropIndex.putIfAbsent(crop.getName(), crops.size()) == null) {
+                    crops.add(crop);
+                }
+            }
+            kept.add(reservation);
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temp)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(idSequence);
+            out.writeLong(journalOffset);
+
+            out.writeInt(crops.size());
+            for (Crop crop : crops) {
+                writeString(out, crop.getName());
+                out.writeInt(crop.getMinGrowingDays());
+                int seasons = 0;
+                for (Crop.Season season : crop.getBestSeasons()) {
+                    seasons |= 1 << season.ordinal();
+                }
+                out.writeByte(seasons);
+                writeString(out, crop.getDescription());
+            }
+
+            out.writeInt(plots.size());
+            for (GardenPlot plot : plots) {
+                writeString(out, plot.getPlotID());
+                writeString(out, plot.getName());
+                out.writeDouble(plot.getSizeSqMeters());
+                writeString(out, plot.getLocation());
+                int[] allowed = plot.allowedCropOrdinals();
+                out.writeInt(allowed.length);
+                for (int ordinal : allowed) {
+                    writeString(out, CropCatalog.shared().keyOf(ordinal));
+                }
+            }
+
+            out.writeInt(gardeners.size());
+            for (Gardener gardener : gardeners) {
+                writeString(out, gardener.getGardenerID());
+                writeString(out, gardener.getName());
+                writeString(out, gardener.getEmail());
+                writeString(out, gardener.getPhoneNumber());
+            }
+
+            out.writeInt(kept.size());
+            for (Reservation reservation : kept) {
+                writeString(out, reservation.getReservationID());
+                out.writeInt(plotIndex.get(reservation.getPlot()));
+                out.writeInt(gardenerIndex.get(reservation.getGardener()));
+                out.writeLong(reservation.getPackedRange());
+                out.writeByte(reservation.getPlot().statusOf(reservation).ordinal());
+                List<Crop> plan = reservation.getPlantingPlan();
+                out.writeShort(plan.size());
+                for (Crop crop : plan) {
+                    out.writeInt(cropIndex.get(crop.getName()));
+                }
+            }
+            out.flush();
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // loads the snapshot into 'system' (which must not hold any of its IDs
+    // yet, nor have a journal attached); returns the journal offset to
+    // replay from
+    public static long restore(Path file, GardenSystem system) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        Reader in = new Reader(bytes);
+        if (bytes.length < 22 || in.buffer.getInt() != MAGIC || in.buffer.getShort() != VERSION) {
+            throw new IOException("Not a garden snapshot (or an unsupported version)");
+        }
+        long idSequence = in.buffer.getLong();
+        long journalOffset = in.buffer.getLong();
+
+        Crop[] crops = new Crop[in.buffer.getInt()];
+        for (int i = 0; i < crops.length; i++) {
+            String name = in.string();
+            int minGrowingDays = in.buffer.getInt();
+            int seasonBits = in.buffer.get();
+            Set<Crop.Season> seasons = EnumSet.noneOf(Crop.Season.class);
+            for (Crop.Season season : Crop.Season.values()) {
+                if ((seasonBits & (1 << season.ordinal())) != 0) {
+                    seasons.add(season);
+                }
+            }
+            crops[i] = CropCatalog.shared().intern(new Crop(name, minGrowingDays, seasons, in.string()));
+        }
+
+        GardenPlot[] plots = new GardenPlot[in.buffer.getInt()];
+        for (int i = 0; i < plots.length; i++) {
+            GardenPlot plot = new GardenPlot(in.string(), in.string(), in.buffer.getDouble(), in.string());
+            int allowed = in.buffer.getInt();
+            for (int c = 0; c < allowed; c++) {
+                plot.addAllowedCrop(in.string());
+            }
+            plots[i] = plot;
+        }
+
+        Gardener[] gardeners = new Gardener[in.buffer.getInt()];
+        for (int i = 0; i < gardeners.length; i++) {
+            gardeners[i] = new Gardener(in.string(), in.string(), in.string(), in.string());
+        }
+
+        ReservationStatus[] statuses = ReservationStatus.values();
+        Reservation[] reservations = new Reservation[in.buffer.getInt()];
+        List<Crop> plan = new ArrayList<>();
+        for (int i = 0; i < reservations.length; i++) {
+            String id = in.string();
+            GardenPlot plot = plots[in.buffer.getInt()];
+            Gardener gardener = gardeners[in.buffer.getInt()];
+            DateRange range = DateRange.fromPacked(in.buffer.getLong());
+            ReservationStatus status = statuses[in.buffer.get()];
+            plan.clear();
+            for (int c = in.buffer.getShort(); c > 0; c--) {
+                plan.add(crops[in.buffer.getInt()]);
+            }
+            reservations[i] = new Reservation(id, plot, gardener, range, plan, status);
+        }
+
+        system.bulkLoad(Arrays.asList(plots), Arrays.asList(gardeners), Arrays.asList(reservations));
+        system.getIdGenerator().advanceTo(idSequence);
+        return journalOffset;
+    }
+
+    // startup: the snapshot (if any) and then the journal written after it
+    // (if any). Attach the journal to the system only afterwards.
+    public static void recover(Path snapshot, Path journal, GardenSystem system) throws IOException {
+        long offset = GardenJournal.HEADER_SIZE;
+        if (Files.exists(snapshot)) {
+            offset = restore(snapshot, system);
+        }
+        if (Files.exists(journal)) {
+            GardenJournal.replay(journal, system, offset);
+        }
+    }
+
+    // helpers
+
+    private static <T> Map<T, Integer> indexOf(List<T> items) {
+        Map<T, Integer> index = new IdentityHashMap<>(items.size() * 2);
+        for (int i = 0; i < items.size(); i++) {
+            index.put(items.get(i), i);
+        }
+        return index;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    // strings are decoded straight out of the file's byte array
+    private static final class Reader {
+        final byte[] bytes;
+        final ByteBuffer buffer;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+            this.buffer = ByteBuffer.wrap(bytes);
+        }
+
+        String string() {
+            int length = buffer.getInt();
+            if (length < 0) return null;
+            String s = new String(bytes, buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return s;
+        }
+    }
+}
@@ -1,21 +1,120 @@
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 // GardenSystem - main controller that ties everything together
+//
+// In concurrent mode every booking step (create, confirm, cancel, complete,
+// batch booking) runs under the lock stripe of its plot and then that of its
+// gardener, so the availability check and the change it guards can't be
+// split by another thread. Lookups and per-plot availability queries take no
+// locks; system-wide totals (reservation list, status counts, free-plot
+// counts) change under the registry's write lock and are read under its
+// read lock, or optimistically for single counters. The reservation history
+// and the reports built from it are read without any lock (ReservationLog,
+// GardenPlot's active snapshot), so they never hold up a booking.
+//
+// With a GardenJournal attached every mutation is appended to the journal
+// while its locks are held (so the journal sees changes in the order they
+// were made) and the call returns only once the record is on disk. The wait
+// happens after the locks are released, so concurrent callers end up
+// sharing the journal's flushes; GardenCommandLoop defers it to the end of
+// each batch of commands, along with the reservation index updates, which
+// it applies under one registry write lock per batch. Once the journal has failed every mutation is
+// refused with an UncheckedIOException before it changes anything.
 public class GardenSystem {
     private final List<GardenPlot> plots;
     private final List<Gardener> gardeners;
-    private final List<Reservation> reservations;
-    private int reservationCounter;
+    private final ReservationLog reservations;   // append-only history
+    private final ReservationPartitions reservationsByStatus;
+    // id lookups - kept in sync with the lists above (lists keep the order)
+    private final Map<String, GardenPlot> plotsById;
+    private final Map<String, Gardener> gardenersById;
+    private final Map<String, Reservation> reservationsById;
+    // crop index - crop ordinal -> restricted plots allowing it,
+    // plus the plots that allow everything
+    private final Map<Integer, Set<GardenPlot>> restrictedPlotsByCrop;
+    private final Set<GardenPlot> unrestrictedPlots;
+    private long plotsAdded;
+    private final OccupancyTree occupancy;   // plots taken per day, all plots
+    private final ReservationIdGenerator idGenerator;
+    private final Clock clock;
+    // concurrent mode only (null otherwise)
+    private final LockStripes plotLocks;
+    private final LockStripes gardenerLocks;
+    // guards appends to reservations, reservationsByStatus, occupancy and plotsAdded
+    private final StampedLock registry = new StampedLock();
+    private volatile GardenJournal journal;   // null = in memory only
+    // set on a thread whose journal waits are deferred (see deferJournalWaits)
+    private final ThreadLocal<boolean[]> journalWaitsDeferred = ThreadLocal.withInitial(() -> new boolean[1]);
+    // set on a thread whose index updates are batched (see deferIndexUpdates)
+    private final ThreadLocal<List<Runnable>> deferredIndexUpdates = new ThreadLocal<>();
 
     private static final int MAX_ACTIVE_RESERVATIONS_PER_GARDENER = 3;
+    // community groups book 5-20 plots at once through bookPlots
+    private static final int MAX_ACTIVE_GROUP_RESERVATIONS = 20;
+    private static final int LOCK_STRIPES = 64;
+    private static final ReentrantLock[] NO_LOCKS = new ReentrantLock[0];
+
+    public GardenSystem(Clock clock, ReservationIdGenerator idGenerator, boolean concurrent) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        if (idGenerator == null) {
+            throw new IllegalArgumentException("ID generator cannot be null");
+        }
+        // plots and gardeners change rarely and are iterated by every
+        // search, so concurrent mode copies on write and reads them lock-free
+        this.plots = concurrent ? new CopyOnWriteArrayList<>() : new ArrayList<>();
+        this.gardeners = concurrent ? new CopyOnWriteArrayList<>() : new ArrayList<>();
+        this.reservations = new ReservationLog();
+        this.reservationsByStatus = new ReservationPartitions();
+        this.plotsById = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.gardenersById = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.reservationsById = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.restrictedPlotsByCrop = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.unrestrictedPlots = concurrent ? ConcurrentHashMap.newKeySet() : new LinkedHashSet<>();
+        this.plotsAdded = 0;
+        this.occupancy = new OccupancyTree();
+        this.idGenerator = idGenerator;
+        this.clock = clock;
+        this.plotLocks = concurrent ? new LockStripes(LOCK_STRIPES) : null;
+        this.gardenerLocks = concurrent ? new LockStripes(LOCK_STRIPES) : null;
+    }
+
+    public GardenSystem(Clock clock, ReservationIdGenerator idGenerator) {
+        this(clock, idGenerator, false);
+    }
+
+    public GardenSystem(ReservationIdGenerator idGenerator) {
+        this(Clock.systemDefaultZone(), idGenerator);
+    }
+
+    public GardenSystem(Clock clock) {
+        this(clock, new SequentialIdGenerator());
+    }
 
     public GardenSystem() {
-        this.plots = new ArrayList<>();
-        this.gardeners = new ArrayList<>();
-        this.reservations = new ArrayList<>();
-        this.reservationCounter = 0;
+        this(Clock.systemDefaultZone(), new SequentialIdGenerator());
     }
 
     // getters
@@ -28,72 +127,262 @@ public class GardenSystem {
         return Collections.unmodifiableList(gardeners);
     }
 
+    // a snapshot in concurrent mode (copied without locking), a live view otherwise
     public List<Reservation> getReservations() {
+        applyDeferredIndexes();
+        if (isConcurrent()) {
+            return Collections.unmodifiableList(reservations.snapshot());
+        }
         return Collections.unmodifiableList(reservations);
     }
 
+    public ReservationIdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public boolean isConcurrent() {
+        return plotLocks != null;
+    }
+
+    public GardenJournal getJournal() {
+        return journal;
+    }
+
+    // attach before the system is shared (and after replaying the journal
+    // into it); null turns journaling off
+    public void setJournal(GardenJournal journal) {
+        this.journal = journal;
+    }
+
+    // today according to the system clock - read once per report or bulk query
+    public LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    // bulk loading
+
+    // Loads plots, gardeners and past reservations without the per-item
+    // checks of addPlot/registerGardener/createReservation, then builds every
+    // lookup and availability index in one pass at the end (per-plot and
+    // per-gardener work runs in parallel). Input is trusted apart from
+    // duplicate IDs and double-booked plots, which are rejected before
+    // anything is changed. Each plot's last confirmed reservation makes its
+    // gardener the plot's current one, as confirming it would have.
+    public void bulkLoad(Stream<GardenPlot> newPlots,
+                         Stream<Gardener> newGardeners,
+                         Stream<Reservation> newReservations) {
+        bulkLoad(newPlots != null ? newPlots.collect(Collectors.toList()) : new ArrayList<>(),
+                 newGardeners != null ? newGardeners.collect(Collectors.toList()) : new ArrayList<>(),
+                 newReservations != null ? newReservations.collect(Collectors.toList()) : new ArrayList<>());
+    }
+
+    // same, for callers that already hold the batches (snapshot restore) -
+    // saves copying a million-entry stream into yet another list
+    void bulkLoad(List<GardenPlot> plotBatch,
+                  List<Gardener> gardenerBatch,
+                  List<Reservation> reservationBatch) {
+        checkJournal();
+
+        Map<String, GardenPlot> plotIndex = indexById(plotBatch, plotsById, GardenPlot::getPlotID, "plot");
+        Map<String, Gardener> gardenerIndex = indexById(gardenerBatch, gardenersById, Gardener::getGardenerID, "gardener");
+        Map<String, Reservation> reservationIndex =
+            indexById(reservationBatch, reservationsById, Reservation::getReservationID, "reservation");
+
+        // per-plot and per-gardener indexes, built in parallel (grouped by
+        // identity - equals/hashCode on the IDs costs more at this size)
+        Map<GardenPlot, List<Reservation>> byPlot = new IdentityHashMap<>();
+        Map<Gardener, List<Reservation>> byGardener = new IdentityHashMap<>();
+        for (Reservation reservation : reservationBatch) {
+            byPlot.computeIfAbsent(reservation.getPlot(), k -> new ArrayList<>()).add(reservation);
+            byGardener.computeIfAbsent(reservation.getGardener(), k -> new ArrayList<>()).add(reservation);
+        }
+        byPlot.entrySet().parallelStream().forEach(e -> e.getKey().checkLoadable(e.getValue()));
+        byPlot.entrySet().parallelStream().forEach(e -> {
+            GardenPlot plot = e.getKey();
+            plot.loadReservations(e.getValue());
+            for (Reservation reservation : e.getValue()) {
+                if (reservation.getStatus().occupiesPlot()) {
+                    plot.assign(reservation.getGardener());
+                }
+            }
+        });
+        byGardener.entrySet().parallelStream().forEach(e -> e.getKey().addReservations(e.getValue()));
+
+        // system-wide indexes
+        long highestSequence = 0;
+        applyDeferredIndexes();
+        long stamp = registry.writeLock();
+        try {
+            for (GardenPlot plot : plotBatch) {
+                plot.attach(this, plotsAdded++);
+                indexCrops(plot);
+            }
+            plots.addAll(plotBatch);
+            plotsById.putAll(plotIndex);
+            gardeners.addAll(gardenerBatch);
+            gardenersById.putAll(gardenerIndex);
+            reservations.addAll(reservationBatch);
+            reservationsById.putAll(reservationIndex);
+
+            for (Reservation reservation : reservationBatch) {
+                reservationsByStatus.add(reservation);
+                if (reservation.isConfirmed()) {
+                    markOccupancy(reservation, 1);
+                }
+                highestSequence = Math.max(highestSequence, trailingNumber(reservation.getReservationID()));
+            }
+        } finally {
+            registry.unlockWrite(stamp);
+        }
+        idGenerator.advanceTo(highestSequence);
+
+        record(j -> {
+            plotBatch.forEach(j::plotAdded);
+            gardenerBatch.forEach(j::gardenerRegistered);
+            reservationBatch.forEach(j::reservationCreated);
+        });
+        awaitJournal();
+    }
+
+    private static <T> Map<String, T> indexById(List<T> batch, Map<String, T> existing,
+                                                Function<T, String> idOf, String kind) {
+        Map<String, T> index = new HashMap<>(batch.size() * 2);
+        for (T item : batch) {
+            String id = idOf.apply(item);
+            if (index.put(id, item) != null || existing.containsKey(id)) {
+                throw new IllegalArgumentException("Duplicate " + kind + " ID: " + id);
+            }
+        }
+        return index;
+    }
+
+    // numeric suffix of an ID like R0042 or R003-0042 (0 if there is none)
+    private static long trailingNumber(String id) {
+        long value = 0;
+        long scale = 1;
+        for (int i = id.length() - 1; i >= 0 && scale <= 1_000_000_000_000_000L; i--) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') break;
+            value += (c - '0') * scale;
+            scale *= 10;
+        }
+        return value;
+    }
+
     // plot management
 
     public boolean addPlot(GardenPlot plot) {
         if (plot == null) return false;
-        
-        if (findPlotById(plot.getPlotID()) != null) {
-            return false; // Already exists
+        checkJournal();
+
+        ReentrantLock[] held = lockBooking(Collections.singletonList(plot.getPlotID()), Collections.emptyList());
+        try {
+            if (plotsById.putIfAbsent(plot.getPlotID(), plot) != null) {
+                return false; // Already exists
+            }
+            List<Reservation> existing = plot.getActiveReservations();
+            applyDeferredIndexes();
+            long stamp = registry.writeLock();
+            try {
+                plot.attach(this, plotsAdded++);
+                plots.add(plot);
+                for (Reservation res : existing) {
+                    if (res.isConfirmed()) {
+                        markOccupancy(res, 1);
+                    }
+                }
+            } finally {
+                registry.unlockWrite(stamp);
+            }
+            indexCrops(plot);
+            record(j -> j.plotAdded(plot));
+        } finally {
+            LockStripes.unlockAll(held);
         }
-        plots.add(plot);
+        awaitJournal();
         return true;
     }
 
     public boolean removePlot(String plotId) {
-        GardenPlot plot = findPlotById(plotId);
-        if (plot == null) return false;
-        
-        if (!plot.getActiveReservations().isEmpty()) {
-            return false;
+        if (plotId == null) return false;
+        checkJournal();
+
+        ReentrantLock[] held = lockBooking(Collections.singletonList(plotId), Collections.emptyList());
+        try {
+            GardenPlot plot = findPlotById(plotId);
+            if (plot == null) return false;
+
+            if (plot.hasActiveReservations()) {
+                return false;
+            }
+            plotsById.remove(plotId);
+            unindexCrops(plot);
+            plot.detach();
+            plots.remove(plot);
+            record(j -> j.plotRemoved(plotId));
+        } finally {
+            LockStripes.unlockAll(held);
         }
-        return plots.remove(plot);
+        awaitJournal();
+        return true;
     }
 
     public GardenPlot findPlotById(String plotId) {
         if (plotId == null) return null;
-        for (GardenPlot plot : plots) {
-            if (plot.getPlotID().equals(plotId)) {
-                return plot;
-            }
-        }
-        return null;
+        return plotsById.get(plotId);
     }
 
     // gardener management
 
+    // under the gardener's stripe, so no booking for the new gardener can
+    // reach the journal ahead of its registration
     public boolean registerGardener(Gardener gardener) {
         if (gardener == null) return false;
-        
-        if (findGardenerById(gardener.getGardenerID()) != null) {
-            return false; // Already registered
+        checkJournal();
+
+        ReentrantLock[] held = lockBooking(Collections.emptyList(), gardener.getGardenerID());
+        try {
+            if (gardenersById.putIfAbsent(gardener.getGardenerID(), gardener) != null) {
+                return false; // Already registered
+            }
+            gardeners.add(gardener);
+            record(j -> j.gardenerRegistered(gardener));
+        } finally {
+            LockStripes.unlockAll(held);
         }
-        gardeners.add(gardener);
+        awaitJournal();
         return true;
     }
 
     public boolean removeGardener(String gardenerId) {
-        Gardener gardener = findGardenerById(gardenerId);
-        if (gardener == null) return false;
-        
-        if (gardener.hasActiveReservations()) {
-            return false;
+        if (gardenerId == null) return false;
+        checkJournal();
+
+        ReentrantLock[] held = lockBooking(Collections.emptyList(), gardenerId);
+        try {
+            Gardener gardener = findGardenerById(gardenerId);
+            if (gardener == null) return false;
+
+            if (gardener.hasActiveReservations()) {
+                return false;
+            }
+            gardenersById.remove(gardenerId);
+            gardeners.remove(gardener);
+            record(j -> j.gardenerRemoved(gardenerId));
+        } finally {
+            LockStripes.unlockAll(held);
         }
-        return gardeners.remove(gardener);
+        awaitJournal();
+        return true;
     }
 
     public Gardener findGardenerById(String gardenerId) {
         if (gardenerId == null) return null;
-        for (Gardener g : gardeners) {
-            if (g.getGardenerID().equals(gardenerId)) {
-                return g;
-            }
-        }
-        return null;
+        return gardenersById.get(gardenerId);
     }
 
     // availability queries
@@ -110,19 +399,99 @@ public class GardenSystem {
         return available;
     }
 
+    // only looks at plots that allow the crop, via the crop index
     public List<GardenPlot> findAvailablePlots(DateRange range, Crop crop) {
+        if (crop == null) return findAvailablePlots(range);
+
         List<GardenPlot> available = new ArrayList<>();
         if (range == null || !range.isValid()) return available;
-        
-        for (GardenPlot plot : plots) {
-            if (plot.isAvailable(range) && 
-                (crop == null || plot.isCropAllowed(crop))) {
-                available.add(plot);
-            }
+
+        addAvailable(available, unrestrictedPlots, range);
+        Set<GardenPlot> restricted = restrictedPlotsByCrop.get(crop.getOrdinal());
+        if (restricted != null) {
+            addAvailable(available, restricted, range);
         }
+        available.sort(Comparator.comparingLong(GardenPlot::getSystemOrder));
         return available;
     }
 
+    // soonest window of lengthInDays free days per plot, starting no earlier
+    // than notBefore, on plots that allow the crop (null = any plot).
+    // Sorted soonest first, ties in plot order.
+    public List<PlotWindow> findEarliestWindow(int lengthInDays, LocalDate notBefore, Crop crop) {
+        List<PlotWindow> windows = new ArrayList<>();
+        if (lengthInDays < 1 || notBefore == null) return windows;
+
+        Iterable<GardenPlot> candidates = plots;
+        if (crop != null) {
+            List<GardenPlot> allowing = new ArrayList<>(unrestrictedPlots);
+            Set<GardenPlot> restricted = restrictedPlotsByCrop.get(crop.getOrdinal());
+            if (restricted != null) {
+                allowing.addAll(restricted);
+            }
+            candidates = allowing;
+        }
+        for (GardenPlot plot : candidates) {
+            DateRange window = plot.findEarliestWindow(lengthInDays, notBefore);
+            if (window != null) {   // none left in the bookable years
+                windows.add(new PlotWindow(plot, window));
+            }
+        }
+        windows.sort(Comparator.comparingLong((PlotWindow w) -> w.getDateRange().getStartEpochDay())
+                               .thenComparingLong(w -> w.getPlot().getSystemOrder()));
+        return windows;
+    }
+
+    public List<PlotWindow> findEarliestWindow(int lengthInDays, LocalDate notBefore) {
+        return findEarliestWindow(lengthInDays, notBefore, null);
+    }
+
+    private static void addAvailable(List<GardenPlot> out, Set<GardenPlot> candidates, DateRange range) {
+        for (GardenPlot plot : candidates) {
+            if (plot.isAvailable(range)) {
+                out.add(plot);
+            }
+        }
+    }
+
+    // free plots for every day of the window (index 0 = window start)
+    public int[] getFreePlotCounts(DateRange window) {
+        if (window == null) return new int[0];
+        long packed = window.getPacked();
+        int[] counts;
+        applyDeferredIndexes();
+        long stamp = registry.readLock();
+        try {
+            counts = occupancy.counts(PackedDateRange.start(packed), PackedDateRange.end(packed));
+        } finally {
+            registry.unlockRead(stamp);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = plots.size() - counts[i];
+        }
+        return counts;
+    }
+
+    // days in the window on which at least minFreePlots plots are free
+    public List<LocalDate> findDaysWithFreePlots(DateRange window, int minFreePlots) {
+        List<LocalDate> days = new ArrayList<>();
+        if (window == null) return days;
+        long packed = window.getPacked();
+        int maxTaken = plots.size() - minFreePlots;
+        List<Integer> matching;
+        applyDeferredIndexes();
+        long stamp = registry.readLock();
+        try {
+            matching = occupancy.daysAtMost(PackedDateRange.start(packed), PackedDateRange.end(packed), maxTaken);
+        } finally {
+            registry.unlockRead(stamp);
+        }
+        for (int day : matching) {
+            days.add(LocalDate.ofEpochDay(day));
+        }
+        return days;
+    }
+
     public boolean isPlotAvailable(String plotId, DateRange range) {
         GardenPlot plot = findPlotById(plotId);
         return plot != null && plot.isAvailable(range);
@@ -134,10 +503,29 @@ public class GardenSystem {
                                          String gardenerId,
                                          DateRange range,
                                          List<Crop> plantingPlan) {
+        Reservation reservation = reserve(plotId, gardenerId, range, plantingPlan);
+        awaitJournal();
+        return reservation;
+    }
+
+    public Reservation createReservation(String plotId, String gardenerId, DateRange range) {
+        return createReservation(plotId, gardenerId, range, null);
+    }
+
+    // createReservation without waiting for the journal
+    private Reservation reserve(String plotId,
+                                String gardenerId,
+                                DateRange range,
+                                List<Crop> plantingPlan) {
         if (plotId == null || gardenerId == null || range == null || !range.isValid()) {
             System.out.println("Error: Invalid reservation details.");
             return null;
         }
+        if (!range.isBookable()) {
+            System.out.println("Error: Reservation dates are outside the bookable years.");
+            return null;
+        }
+        checkJournal();
 
         GardenPlot plot = findPlotById(plotId);
         Gardener gardener = findGardenerById(gardenerId);
@@ -151,70 +539,300 @@ public class GardenSystem {
             return null;
         }
 
-        if (gardener.getActiveReservationCount() >= MAX_ACTIVE_RESERVATIONS_PER_GARDENER) {
-            System.out.println("Error: Gardener has reached maximum active reservations.");
+        ReentrantLock[] held = lockBooking(Collections.singletonList(plotId), gardenerId);
+        try {
+            // removePlot/removeGardener may have run before the locks were taken
+            if (findPlotById(plotId) != plot || findGardenerById(gardenerId) != gardener) {
+                System.out.println("Error: Plot or gardener was removed - " + plotId + ", " + gardenerId);
+                return null;
+            }
+            if (gardener.getActiveReservationCount() >= MAX_ACTIVE_RESERVATIONS_PER_GARDENER) {
+                System.out.println("Error: Gardener has reached maximum active reservations.");
+                return null;
+            }
+
+            if (!plot.isAvailable(range)) {
+                System.out.println("Error: Plot is not available for the requested dates.");
+                return null;
+            }
+
+            if (plantingPlan != null) {
+                for (Crop crop : plantingPlan) {
+                    if (!plot.isCropAllowed(crop)) {
+                        System.out.println("Error: Crop '" + crop.getName() + "' is not allowed on this plot.");
+                        return null;
+                    }
+                }
+            }
+
+            String reservationId = generateReservationId();
+            Reservation reservation = new Reservation(reservationId, plot, gardener, range, plantingPlan);
+
+            register(Collections.singletonList(reservation));
+            plot.addReservation(reservation);
+            gardener.addReservation(reservation);
+            record(j -> j.reservationCreated(reservation));
+
+            return reservation;
+        } finally {
+            LockStripes.unlockAll(held);
+        }
+    }
+
+    // create and confirm in one step
+    public Reservation bookPlot(String plotId,
+                                String gardenerId,
+                                DateRange range,
+                                List<Crop> plantingPlan) {
+        if (plotId == null || gardenerId == null) {
+            return createReservation(plotId, gardenerId, range, plantingPlan); // reports the error
+        }
+        // held across both steps so nobody can confirm in between
+        Reservation reservation;
+        ReentrantLock[] held = lockBooking(Collections.singletonList(plotId), gardenerId);
+        try {
+            reservation = reserve(plotId, gardenerId, range, plantingPlan);
+            if (reservation != null) {
+                confirm(reservation.getReservationID());
+            }
+        } finally {
+            LockStripes.unlockAll(held);
+        }
+        awaitJournal();
+        return reservation;
+    }
+
+    // books several plots for the same gardener and dates, all or nothing.
+    // Every check runs before anything changes; returns null if any plot fails.
+    // Group bookings (two or more plots) have their own, larger limit on
+    // active reservations.
+    public List<Reservation> bookPlots(List<String> plotIds,
+                                       String gardenerId,
+                                       DateRange range,
+                                       List<Crop> plantingPlan) {
+        if (plotIds == null || plotIds.isEmpty() || gardenerId == null ||
+            range == null || !range.isValid()) {
+            System.out.println("Error: Invalid reservation details.");
+            return null;
+        }
+        if (!range.isBookable()) {
+            System.out.println("Error: Reservation dates are outside the bookable years.");
+            return null;
+        }
+
+        Gardener gardener = findGardenerById(gardenerId);
+        if (gardener == null) {
+            System.out.println("Error: Gardener not found - " + gardenerId);
             return null;
         }
+        for (String plotId : plotIds) {
+            if (plotId == null) {
+                System.out.println("Error: Invalid reservation details.");
+                return null;
+            }
+        }
+        if (plantingPlan != null && plantingPlan.contains(null)) {
+            System.out.println("Error: Planting plan cannot contain an empty crop.");
+            return null;
+        }
+
+        List<Reservation> booked;
+        ReentrantLock[] held = lockBooking(plotIds, gardenerId);
+        try {
+            if (findGardenerById(gardenerId) != gardener) {
+                System.out.println("Error: Gardener was removed - " + gardenerId);
+                return null;
+            }
+            checkJournal();
+            booked = bookPlotsLocked(plotIds, gardener, range, plantingPlan);
+        } finally {
+            LockStripes.unlockAll(held);
+        }
+        awaitJournal();
+        return booked;
+    }
 
-        if (!plot.isAvailable(range)) {
-            System.out.println("Error: Plot is not available for the requested dates.");
+    private List<Reservation> bookPlotsLocked(List<String> plotIds,
+                                              Gardener gardener,
+                                              DateRange range,
+                                              List<Crop> plantingPlan) {
+        // the larger group limit only for real group bookings - one plot at a
+        // time stays under the normal quota
+        int limit = plotIds.size() > 1 ? MAX_ACTIVE_GROUP_RESERVATIONS : MAX_ACTIVE_RESERVATIONS_PER_GARDENER;
+        if (gardener.getActiveReservationCount() + plotIds.size() > limit) {
+            System.out.println("Error: Booking " + plotIds.size() +
+                               " plots would exceed the gardener's maximum active reservations.");
             return null;
         }
 
+        CropMask plan = new CropMask();
         if (plantingPlan != null) {
             for (Crop crop : plantingPlan) {
-                if (!plot.isCropAllowed(crop)) {
-                    System.out.println("Error: Crop '" + crop.getName() + "' is not allowed on this plot.");
-                    return null;
-                }
+                plan.add(crop.getOrdinal());
             }
         }
 
-        String reservationId = generateReservationId();
-        Reservation reservation = new Reservation(reservationId, plot, gardener, range, plantingPlan);
-
-        reservations.add(reservation);
-        plot.addReservation(reservation);
-        gardener.addReservation(reservation);
+        // one pass over the plots - nothing is changed until all of them pass
+        List<GardenPlot> batchPlots = new ArrayList<>(plotIds.size());
+        Set<GardenPlot> seen = new LinkedHashSet<>();
+        for (String plotId : plotIds) {
+            GardenPlot plot = findPlotById(plotId);
+            if (plot == null) {
+                System.out.println("Error: Plot not found - " + plotId);
+                return null;
+            }
+            if (!seen.add(plot)) {
+                System.out.println("Error: Plot listed twice - " + plotId);
+                return null;
+            }
+            if (!plot.isAvailable(range)) {
+                System.out.println("Error: Plot " + plotId + " is not available for the requested dates.");
+                return null;
+            }
+            if (!plot.areCropsAllowed(plan)) {
+                System.out.println("Error: Planting plan is not allowed on plot " + plotId + ".");
+                return null;
+            }
+            batchPlots.add(plot);
+        }
 
-        return reservation;
+        List<Reservation> booked = new ArrayList<>(batchPlots.size());
+        for (GardenPlot plot : batchPlots) {
+            Reservation reservation = new Reservation(generateReservationId(), plot, gardener, range,
+                                                      plantingPlan, ReservationStatus.CONFIRMED);
+            plot.addReservation(reservation);
+            plot.assign(gardener);
+            booked.add(reservation);
+        }
+        gardener.addReservations(booked);
+        applyDeferredIndexes();
+        long stamp = registry.writeLock();
+        try {
+            addToRegistry(booked);
+            occupancy.add(PackedDateRange.start(range.getPacked()), PackedDateRange.end(range.getPacked()),
+                          booked.size());
+        } finally {
+            registry.unlockWrite(stamp);
+        }
+        record(j -> booked.forEach(j::reservationCreated));
+        return booked;
     }
 
-    public Reservation createReservation(String plotId, String gardenerId, DateRange range) {
-        return createReservation(plotId, gardenerId, range, null);
+    // books a burst of requests together. Requests that fail on their own
+    // (unknown plot or gardener, plot already taken, crop not allowed) drop
+    // out first; the policy then settles clashes inside the batch and the
+    // gardeners' quotas, and the winners are confirmed in one index update.
+    // Returns one entry per request: its confirmed reservation, or null.
+    public List<Reservation> bookBatch(List<BookingRequest> requests, ConflictPolicy policy, long seed) {
+        if (requests == null || policy == null) {
+            throw new IllegalArgumentException("Requests and policy cannot be null");
+        }
+        List<Reservation> results = new ArrayList<>(Collections.nCopies(requests.size(), (Reservation) null));
+        if (requests.isEmpty()) return results;
+
+        Set<String> plotIds = new LinkedHashSet<>();
+        Set<String> gardenerIds = new LinkedHashSet<>();
+        for (BookingRequest request : requests) {
+            plotIds.add(request.getPlotId());
+            gardenerIds.add(request.getGardenerId());
+        }
+
+        checkJournal();
+        ReentrantLock[] held = lockBooking(plotIds, gardenerIds);
+        try {
+            List<ConflictResolver.Entry> candidates = new ArrayList<>();
+            Map<String, Integer> quotaLeft = new HashMap<>();
+            for (int i = 0; i < requests.size(); i++) {
+                BookingRequest request = requests.get(i);
+                GardenPlot plot = findPlotById(request.getPlotId());
+                Gardener gardener = findGardenerById(request.getGardenerId());
+                if (plot == null || gardener == null || !request.getDateRange().isValid() ||
+                    !request.getDateRange().isBookable() ||
+                    !plot.isAvailable(request.getDateRange()) ||
+                    !plot.areCropsAllowed(cropMaskOf(request.getPlantingPlan()))) {
+                    continue;
+                }
+                quotaLeft.putIfAbsent(gardener.getGardenerID(),
+                                      MAX_ACTIVE_RESERVATIONS_PER_GARDENER - gardener.getActiveReservationCount());
+                candidates.add(new ConflictResolver.Entry(i, plot.getPlotID(), gardener.getGardenerID(),
+                                                          request.getDateRange().getPacked()));
+            }
+
+            List<Reservation> booked = new ArrayList<>();
+            Map<Gardener, List<Reservation>> byGardener = new LinkedHashMap<>();
+            for (ConflictResolver.Entry winner : ConflictResolver.resolve(candidates, quotaLeft, policy, seed)) {
+                BookingRequest request = requests.get(winner.arrival);
+                GardenPlot plot = findPlotById(winner.plotId);
+                Gardener gardener = findGardenerById(winner.gardenerId);
+                Reservation reservation = new Reservation(generateReservationId(), plot, gardener,
+                                                          request.getDateRange(), request.getPlantingPlan(),
+                                                          ReservationStatus.CONFIRMED);
+                plot.addReservation(reservation);
+                plot.assign(gardener);
+                byGardener.computeIfAbsent(gardener, g -> new ArrayList<>()).add(reservation);
+                booked.add(reservation);
+                results.set(winner.arrival, reservation);
+            }
+            for (Map.Entry<Gardener, List<Reservation>> entry : byGardener.entrySet()) {
+                entry.getKey().addReservations(entry.getValue());
+            }
+            applyDeferredIndexes();
+            long stamp = registry.writeLock();
+            try {
+                addToRegistry(booked);
+                for (Reservation reservation : booked) {
+                    markOccupancy(reservation, 1);
+                }
+            } finally {
+                registry.unlockWrite(stamp);
+            }
+            record(j -> booked.forEach(j::reservationCreated));
+        } finally {
+            LockStripes.unlockAll(held);
+        }
+        awaitJournal();
+        return results;
     }
 
-    // create and confirm in one step
-    public Reservation bookPlot(String plotId,
-                                String gardenerId,
-                                DateRange range,
-                                List<Crop> plantingPlan) {
-        Reservation reservation = createReservation(plotId, gardenerId, range, plantingPlan);
-        if (reservation != null) {
-            confirmReservation(reservation.getReservationID());
+    private static CropMask cropMaskOf(List<Crop> crops) {
+        CropMask mask = new CropMask();
+        for (Crop crop : crops) {
+            mask.add(crop.getOrdinal());
         }
-        return reservation;
+        return mask;
     }
 
     public boolean confirmReservation(String reservationId) {
+        boolean confirmed = confirm(reservationId);
+        awaitJournal();
+        return confirmed;
+    }
+
+    // confirmReservation without waiting for the journal
+    private boolean confirm(String reservationId) {
         Reservation reservation = findReservationById(reservationId);
         if (reservation == null) {
             System.out.println("Error: Reservation not found - " + reservationId);
             return false;
         }
         
-        if (!reservation.getPlot().isAvailable(reservation.getDateRange())) {
-            System.out.println("Error: Plot is no longer available for the requested dates.");
-            return false;
-        }
-
+        ReentrantLock[] held = lockFor(reservation);
         try {
-            reservation.confirm();
-            reservation.getPlot().assign(reservation.getGardener());
-            return true;
-        } catch (IllegalStateException e) {
-            System.out.println("Error: " + e.getMessage());
-            return false;
+            if (!reservation.getPlot().isAvailable(reservation.getDateRange())) {
+                System.out.println("Error: Plot is no longer available for the requested dates.");
+                return false;
+            }
+
+            try {
+                reservation.confirm();
+                reservation.getPlot().assign(reservation.getGardener());
+                return true;
+            } catch (IllegalStateException e) {
+                System.out.println("Error: " + e.getMessage());
+                return false;
+            }
+        } finally {
+            LockStripes.unlockAll(held);
         }
     }
 
@@ -224,14 +842,18 @@ public class GardenSystem {
             System.out.println("Error: Reservation not found - " + reservationId);
             return false;
         }
+        ReentrantLock[] held = lockFor(reservation);
         try {
             reservation.cancel();
             reservation.getPlot().release();
-            return true;
         } catch (IllegalStateException e) {
             System.out.println("Error: " + e.getMessage());
             return false;
+        } finally {
+            LockStripes.unlockAll(held);
         }
+        awaitJournal();
+        return true;
     }
 
     public boolean completeReservation(String reservationId) {
@@ -240,41 +862,55 @@ public class GardenSystem {
             System.out.println("Error: Reservation not found - " + reservationId);
             return false;
         }
+        ReentrantLock[] held = lockFor(reservation);
         try {
             reservation.complete();
             reservation.getPlot().release();
-            return true;
         } catch (IllegalStateException e) {
             System.out.println("Error: " + e.getMessage());
             return false;
+        } finally {
+            LockStripes.unlockAll(held);
         }
+        awaitJournal();
+        return true;
     }
 
     public Reservation findReservationById(String reservationId) {
         if (reservationId == null) return null;
-        for (Reservation res : reservations) {
-            if (res.getReservationID().equals(reservationId)) {
-                return res;
-            }
-        }
-        return null;
+        return reservationsById.get(reservationId);
     }
 
     public List<Reservation> getActiveReservations() {
-        List<Reservation> active = new ArrayList<>();
-        for (Reservation res : reservations) {
-            if (res.isActive()) {
-                active.add(res);
-            }
+        applyDeferredIndexes();
+        long stamp = registry.readLock();
+        try {
+            return reservationsByStatus.getActive();
+        } finally {
+            registry.unlockRead(stamp);
+        }
+    }
+
+    public int getActiveReservationCount() {
+        applyDeferredIndexes();
+        long stamp = registry.tryOptimisticRead();
+        int count = reservationsByStatus.activeCount();
+        if (registry.validate(stamp)) {
+            return count;
+        }
+        stamp = registry.readLock();
+        try {
+            return reservationsByStatus.activeCount();
+        } finally {
+            registry.unlockRead(stamp);
         }
-        return active;
     }
 
     public List<Reservation> getReservationsForGardener(String gardenerId) {
         List<Reservation> result = new ArrayList<>();
         Gardener gardener = findGardenerById(gardenerId);
         if (gardener != null) {
-            result.addAll(gardener.getReservations());
+            result.addAll(gardener.copyReservations());
         }
         return result;
     }
@@ -283,7 +919,7 @@ public class GardenSystem {
         List<Reservation> result = new ArrayList<>();
         GardenPlot plot = findPlotById(plotId);
         if (plot != null) {
-            result.addAll(plot.getReservations());
+            result.addAll(plot.copyReservations());
         }
         return result;
     }
@@ -296,29 +932,32 @@ public class GardenSystem {
         sb.append("       GARDENMATE PLANTING REPORT      \n");
         sb.append("═══════════════════════════════════════\n\n");
 
-        if (reservations.isEmpty()) {
+        // history and per-plot snapshots only - no lock a booking needs
+        applyDeferredIndexes();
+        int total = reservations.size();
+        if (total == 0) {
             sb.append("No reservations in the system.\n");
             return sb.toString();
         }
+        List<Reservation> active = new ArrayList<>();
+        for (GardenPlot plot : plots) {
+            active.addAll(plot.getActiveReservations());
+        }
 
         sb.append("SUMMARY\n");
         sb.append("───────────────────────────────────────\n");
         sb.append("Total Plots: ").append(plots.size()).append("\n");
         sb.append("Total Gardeners: ").append(gardeners.size()).append("\n");
-        sb.append("Total Reservations: ").append(reservations.size()).append("\n");
-        sb.append("Active Reservations: ").append(getActiveReservations().size()).append("\n\n");
+        sb.append("Total Reservations: ").append(total).append("\n");
+        sb.append("Active Reservations: ").append(active.size()).append("\n\n");
 
         sb.append("ACTIVE RESERVATIONS\n");
         sb.append("───────────────────────────────────────\n");
         
-        boolean hasActive = false;
-        for (Reservation res : reservations) {
-            if (res.isActive()) {
-                hasActive = true;
-                appendReservationDetails(sb, res);
-            }
+        for (Reservation res : active) {
+            appendReservationDetails(sb, res);
         }
-        if (!hasActive) {
+        if (active.isEmpty()) {
             sb.append("No active reservations.\n");
         }
 
@@ -326,7 +965,7 @@ public class GardenSystem {
         sb.append("───────────────────────────────────────\n");
         
         int count = 0;
-        for (int i = reservations.size() - 1; i >= 0 && count < 5; i--) {
+        for (int i = total - 1; i >= 0 && count < 5; i--) {
             Reservation res = reservations.get(i);
             if (!res.isActive()) {
                 appendReservationDetails(sb, res);
@@ -351,11 +990,12 @@ public class GardenSystem {
             return sb.toString();
         }
 
+        long today = today().toEpochDay();
         for (GardenPlot plot : plots) {
             sb.append("Plot: ").append(plot.getName());
             sb.append(" (").append(plot.getPlotID()).append(")\n");
             sb.append("  Status: ");
-            if (plot.isCurrentlyOccupied()) {
+            if (plot.isOccupiedOn(today)) {
                 sb.append("OCCUPIED");
                 if (plot.getCurrentGardener() != null) {
                     sb.append(" by ").append(plot.getCurrentGardener().getName());
@@ -379,11 +1019,267 @@ public class GardenSystem {
         return sb.toString();
     }
 
+    // called by GardenPlot before one of its reservations changes status.
+    // Journaled first: if the journal refuses the record nothing has changed.
+    // The plot sets the new status before releasing its write lock, which
+    // snapshots read statuses under (GardenPlot.statusOf).
+    void statusChanging(Reservation reservation, ReservationStatus newStatus) {
+        record(j -> j.statusChanged(reservation, newStatus));
+        boolean tracked = reservationsById.get(reservation.getReservationID()) == reservation;
+        boolean wasOccupying = reservation.getStatus().occupiesPlot();
+        updateIndexes(() -> {
+            if (tracked) {
+                reservationsByStatus.move(reservation, newStatus);
+            }
+            if (newStatus.occupiesPlot()) {
+                markOccupancy(reservation, 1);
+            } else if (wasOccupying) {
+                markOccupancy(reservation, -1);
+            }
+        });
+    }
+
+    // adds new reservations to the system-wide list, lookup and status
+    // counts. The lookup and the history are immediate, so later commands in
+    // a deferred batch can find them and a snapshot covers every reservation
+    // whose record is before its offset.
+    private void register(List<Reservation> added) {
+        List<ReservationStatus> statuses = new ArrayList<>(added.size());
+        for (Reservation reservation : added) {
+            reservationsById.put(reservation.getReservationID(), reservation);
+            statuses.add(reservation.getStatus());
+        }
+        reservations.addAll(added);
+        updateIndexes(() -> {
+            for (int i = 0; i < added.size(); i++) {
+                reservationsByStatus.add(added.get(i), statuses.get(i));
+            }
+        });
+    }
+
+    // runs an update of the registry-guarded indexes under the write lock, or
+    // queues it if the calling thread is batching them
+    private void updateIndexes(Runnable update) {
+        List<Runnable> deferred = deferredIndexUpdates.get();
+        if (deferred != null) {
+            deferred.add(update);
+            return;
+        }
+        long stamp = registry.writeLock();
+        try {
+            update.run();
+        } finally {
+            registry.unlockWrite(stamp);
+        }
+    }
+
+    // applies the calling thread's queued index updates, in order - called
+    // before anything reads the indexes or updates them directly
+    private void applyDeferredIndexes() {
+        List<Runnable> deferred = deferredIndexUpdates.get();
+        if (deferred == null || deferred.isEmpty()) return;
+        long stamp = registry.writeLock();
+        try {
+            for (Runnable update : deferred) {
+                update.run();
+            }
+        } finally {
+            deferred.clear();
+            registry.unlockWrite(stamp);
+        }
+    }
+
+    // caller holds the registry write lock
+    private void addToRegistry(List<Reservation> added) {
+        reservations.addAll(added);
+        for (Reservation reservation : added) {
+            reservationsById.put(reservation.getReservationID(), reservation);
+            reservationsByStatus.add(reservation);
+        }
+    }
+
+    // locking (concurrent mode only - returns no locks otherwise)
+
+    private ReentrantLock[] lockBooking(Collection<String> plotIds, String gardenerId) {
+        return lockBooking(plotIds, Collections.singletonList(gardenerId));
+    }
+
+    // all plot stripes first, then the gardener stripes, each in stripe order
+    private ReentrantLock[] lockBooking(Collection<String> plotIds, Collection<String> gardenerIds) {
+        if (!isConcurrent()) return NO_LOCKS;
+
+        ReentrantLock[] plotsHeld = plotLocks.lockAll(plotIds);
+        ReentrantLock[] gardenersHeld = gardenerLocks.lockAll(gardenerIds);
+        ReentrantLock[] held = Arrays.copyOf(plotsHeld, plotsHeld.length + gardenersHeld.length);
+        System.arraycopy(gardenersHeld, 0, held, plotsHeld.length, gardenersHeld.length);
+        return held;
+    }
+
+    private ReentrantLock[] lockFor(Reservation reservation) {
+        return lockBooking(Collections.singletonList(reservation.getPlot().getPlotID()),
+                           reservation.getGardener().getGardenerID());
+    }
+
+    private void markOccupancy(Reservation reservation, int delta) {
+        long range = reservation.getPackedRange();
+        occupancy.add(PackedDateRange.start(range), PackedDateRange.end(range), delta);
+    }
+
+    // crop index maintenance (package-private - called by GardenPlot)
+
+    // changes made straight on a plot are journaled but not waited for -
+    // they reach the disk with the next flush
+    void allowedCropAdded(GardenPlot plot, int cropOrdinal) {
+        addToCropIndex(plot, cropOrdinal);
+        record(j -> j.cropAllowed(plot, cropOrdinal));
+    }
+
+    void allowedCropRemoved(GardenPlot plot, int cropOrdinal) {
+        removeFromCropIndex(plot, cropOrdinal);
+        if (!plot.hasCropRestrictions()) {
+            unrestrictedPlots.add(plot);
+        }
+        record(j -> j.cropDisallowed(plot, cropOrdinal));
+    }
+
+    // compute/computeIfPresent keep add and remove-if-empty atomic in concurrent mode
+    private void addToCropIndex(GardenPlot plot, int cropOrdinal) {
+        unrestrictedPlots.remove(plot);
+        restrictedPlotsByCrop.compute(cropOrdinal, (k, restricted) -> {
+            Set<GardenPlot> result = restricted != null ? restricted : newPlotSet();
+            result.add(plot);
+            return result;
+        });
+    }
+
+    private void removeFromCropIndex(GardenPlot plot, int cropOrdinal) {
+        restrictedPlotsByCrop.computeIfPresent(cropOrdinal, (k, restricted) -> {
+            restricted.remove(plot);
+            return restricted.isEmpty() ? null : restricted;
+        });
+    }
+
+    private Set<GardenPlot> newPlotSet() {
+        return isConcurrent() ? ConcurrentHashMap.newKeySet() : new LinkedHashSet<>();
+    }
+
+    private void indexCrops(GardenPlot plot) {
+        if (!plot.hasCropRestrictions()) {
+            unrestrictedPlots.add(plot);
+            return;
+        }
+        for (int cropOrdinal : plot.allowedCropOrdinals()) {
+            addToCropIndex(plot, cropOrdinal);
+        }
+    }
+
+    private void unindexCrops(GardenPlot plot) {
+        unrestrictedPlots.remove(plot);
+        for (int cropOrdinal : plot.allowedCropOrdinals()) {
+            removeFromCropIndex(plot, cropOrdinal);
+        }
+    }
+
+    // journal
+
+    private void record(Consumer<GardenJournal> append) {
+        GardenJournal current = journal;
+        if (current != null) {
+            append.accept(current);
+        }
+    }
+
+    // refuses a change up front once the journal can't take its record
+    void checkJournal() {
+        GardenJournal current = journal;
+        if (current != null) {
+            current.checkWritable();
+        }
+    }
+
+    // waits for this thread's journal records to reach the disk, unless the
+    // thread has deferred its waits
+    private void awaitJournal() {
+        GardenJournal current = journal;
+        if (current != null && !journalWaitsDeferred.get()[0]) {
+            current.awaitOwnRecords();
+        }
+    }
+
+    // While deferred, mutations on the calling thread return as soon as
+    // their records are appended; awaitDeferredJournal() then waits for all
+    // of them at once. Lets GardenCommandLoop share one flush per batch.
+    void deferJournalWaits(boolean defer) {
+        journalWaitsDeferred.get()[0] = defer;
+    }
+
+    // While deferred, index updates from createReservation and status
+    // changes on the calling thread queue up; ending the deferral applies
+    // them all under one registry write lock. Lookups by ID stay immediate
+    // and reads on the same thread apply the queue first.
+    void deferIndexUpdates(boolean defer) {
+        if (defer) {
+            deferredIndexUpdates.set(new ArrayList<>());
+        } else {
+            try {
+                applyDeferredIndexes();
+            } finally {
+                deferredIndexUpdates.remove();
+            }
+        }
+    }
+
+    void awaitDeferredJournal() {
+        GardenJournal current = journal;
+        if (current != null) {
+            current.awaitOwnRecords();
+        }
+    }
+
+    // journal replay (package-private - used by GardenJournal); records the
+    // system already reflects are skipped, so replaying twice is harmless
+
+    void restoreReservation(String reservationId, String plotId, String gardenerId,
+                            DateRange range, List<Crop> plantingPlan, ReservationStatus status) {
+        GardenPlot plot = findPlotById(plotId);
+        Gardener gardener = findGardenerById(gardenerId);
+        if (findReservationById(reservationId) != null || plot == null || gardener == null) return;
+
+        Reservation reservation = new Reservation(reservationId, plot, gardener, range, plantingPlan, status);
+        plot.loadReservations(Collections.singletonList(reservation));   // known to be new - skips the list scan
+        gardener.addReservations(Collections.singletonList(reservation));
+        if (status.occupiesPlot()) {
+            plot.assign(gardener);
+        }
+        applyDeferredIndexes();
+        long stamp = registry.writeLock();
+        try {
+            addToRegistry(Collections.singletonList(reservation));
+            if (status.occupiesPlot()) {
+                markOccupancy(reservation, 1);
+            }
+        } finally {
+            registry.unlockWrite(stamp);
+        }
+        idGenerator.advanceTo(trailingNumber(reservationId));
+    }
+
+    void restoreStatus(String reservationId, ReservationStatus status) {
+        Reservation reservation = findReservationById(reservationId);
+        if (reservation == null || !reservation.getStatus().canTransitionTo(status)) return;
+
+        reservation.transitionTo(status);
+        if (status.occupiesPlot()) {
+            reservation.getPlot().assign(reservation.getGardener());
+        } else {
+            reservation.getPlot().release();
+        }
+    }
+
     // helpers
 
     private String generateReservationId() {
-        reservationCounter++;
-        return "R" + String.format("%04d", reservationCounter);
+        return idGenerator.nextId();
     }
 
     private void appendReservationDetails(StringBuilder sb, Reservation res) {
@@ -408,11 +1304,12 @@ public class GardenSystem {
 
     @Override
     public String toString() {
+        applyDeferredIndexes();
         return "GardenSystem{" +
                "plots=" + plots.size() +
                ", gardeners=" + gardeners.size() +
                ", reservations=" + reservations.size() +
-               ", activeReservations=" + getActiveReservations().size() +
+               ", activeReservations=" + reservationsByStatus.activeCount() +
                '}';
     }
 }
@@ -4,12 +4,14 @@ import java.util.List;
 import java.util.Objects;
 
 // Gardener - a user who can reserve garden plots
+// Reservation bookkeeping is synchronized on the gardener.
 public class Gardener {
     private final String gardenerID;
     private String name;
     private String email;
     private String phoneNumber;
     private final List<Reservation> reservations;
+    private final ReservationPartitions byStatus;
 
     // constructors
 
@@ -22,6 +24,7 @@ public class Gardener {
         this.email = email;
         this.phoneNumber = phoneNumber;
         this.reservations = new ArrayList<>();
+        this.byStatus = new ReservationPartitions();
     }
 
     public Gardener(String gardenerID, String name) {
@@ -58,6 +61,11 @@ public class Gardener {
         return Collections.unmodifiableList(reservations);
     }
 
+    // copy taken under the gardener's lock - safe while other threads book
+    synchronized List<Reservation> copyReservations() {
+        return new ArrayList<>(reservations);
+    }
+
     // setters
 
     public void setName(String name) {
@@ -74,38 +82,49 @@ public class Gardener {
 
     // reservation management (package-private - used by GardenSystem)
 
-    void addReservation(Reservation reservation) {
+    synchronized void addReservation(Reservation reservation) {
         if (reservation != null && !reservations.contains(reservation)) {
             reservations.add(reservation);
+            byStatus.add(reservation);
         }
     }
 
-    void removeReservation(Reservation reservation) {
-        reservations.remove(reservation);
+    // several at once - used by batch booking; the caller guarantees they are new
+    synchronized void addReservations(List<Reservation> batch) {
+        reservations.addAll(batch);
+        for (Reservation reservation : batch) {
+            byStatus.add(reservation);
+        }
     }
 
-    public List<Reservation> getActiveReservations() {
-        List<Reservation> active = new ArrayList<>();
-        for (Reservation res : reservations) {
-            if (res.getStatus().isActive()) {
-                active.add(res);
-            }
+    synchronized void removeReservation(Reservation reservation) {
+        if (reservations.remove(reservation)) {
+            byStatus.remove(reservation);
         }
-        return active;
     }
 
-    public int getActiveReservationCount() {
-        return getActiveReservations().size();
+    // called by Reservation before its status changes
+    synchronized void statusChanging(Reservation reservation, ReservationStatus newStatus) {
+        if (byStatus.isTrackedActive(reservation)) {
+            byStatus.move(reservation, newStatus);
+        }
+    }
+
+    public synchronized List<Reservation> getActiveReservations() {
+        return byStatus.getActive();
+    }
+
+    public synchronized int getActiveReservationCount() {
+        return byStatus.activeCount();
     }
 
-    public boolean hasActiveReservations() {
-        return !getActiveReservations().isEmpty();
+    public synchronized boolean hasActiveReservations() {
+        return byStatus.activeCount() > 0;
     }
 
-    public boolean hasReservationForPlot(String plotID) {
-        for (Reservation res : reservations) {
-            if (res.getStatus().isActive() && 
-                res.getPlot().getPlotID().equals(plotID)) {
+    public synchronized boolean hasReservationForPlot(String plotID) {
+        for (Reservation res : byStatus.activeView()) {
+            if (res.getPlot().getPlotID().equals(plotID)) {
                 return true;
             }
         }
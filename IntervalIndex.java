@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// IntervalIndex - the confirmed reservations of one plot, keyed by start epoch day
+// Confirmed bookings on a plot never overlap, so sorting by start also sorts
+// by end. An overlap query is one floor lookup plus a walk over the matches,
+// which keeps it O(log n + k) no matter how much history the plot has.
+final class IntervalIndex {
+    private final TreeMap<Integer, Reservation> byStart;
+
+    IntervalIndex() {
+        this.byStart = new TreeMap<>();
+    }
+
+    int size() {
+        return byStart.size();
+    }
+
+    boolean isEmpty() {
+        return byStart.isEmpty();
+    }
+
+    // adds a confirmed reservation, refusing one that would double-book the plot
+    void add(Reservation reservation) {
+        long range = reservation.getPackedRange();
+        Reservation clash = firstOverlap(range);
+        if (clash != null && clash != reservation) {
+            throw new IllegalStateException(
+                "Plot is already booked by " + clash.getReservationID() + " for " + clash.getDateRange());
+        }
+        byStart.put(PackedDateRange.start(range), reservation);
+    }
+
+    boolean remove(Reservation reservation) {
+        return byStart.remove(PackedDateRange.start(reservation.getPackedRange()), reservation);
+    }
+
+    // the entry with the latest start on or before the query's end is the only
+    // candidate: everything before it ends before it starts
+    boolean overlapsAny(long packedRange) {
+        return firstOverlap(packedRange) != null;
+    }
+
+    List<Reservation> overlapping(long packedRange) {
+        int start = PackedDateRange.start(packedRange);
+        List<Reservation> result = new ArrayList<>();
+        for (Map.Entry<Integer, Reservation> e = byStart.floorEntry(PackedDateRange.end(packedRange));
+             e != null && PackedDateRange.end(e.getValue().getPackedRange()) >= start;
+             e = byStart.lowerEntry(e.getKey())) {
+            result.add(e.getValue());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private Reservation firstOverlap(long packedRange) {
+        Map.Entry<Integer, Reservation> e = byStart.floorEntry(PackedDateRange.end(packedRange));
+        if (e == null || PackedDateRange.end(e.getValue().getPackedRange()) < PackedDateRange.start(packedRange)) {
+            return null;
+        }
+        return e.getValue();
+    }
+
+    // first start day >= notBefore with 'length' free days in a row.
+    // Jumps from gap to gap between the sorted bookings, never day by day.
+    int earliestGap(int notBefore, int length) {
+        int candidate = notBefore;
+        Map.Entry<Integer, Reservation> e = byStart.floorEntry(candidate);
+        if (e != null && PackedDateRange.end(e.getValue().getPackedRange()) >= candidate) {
+            candidate = PackedDateRange.end(e.getValue().getPackedRange()) + 1;
+        }
+        for (e = byStart.ceilingEntry(candidate); e != null; e = byStart.higherEntry(e.getKey())) {
+            if ((long) e.getKey() - candidate >= length) break;
+            candidate = PackedDateRange.end(e.getValue().getPackedRange()) + 1;
+        }
+        return candidate;
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.concurrent.locks.ReentrantLock;
+
+// LockStripes - a fixed set of locks shared out by key hash
+// Two keys on the same stripe just share a lock, so the table never grows
+// and no per-key lock objects are created. When several stripes are needed
+// at once they are always taken in ascending stripe order.
+final class LockStripes {
+    private final ReentrantLock[] locks;
+
+    LockStripes(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripe count must be at least 1");
+        }
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;   // power of two, so a stripe is hash & (size - 1)
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    ReentrantLock forKey(String key) {
+        return locks[indexOf(key)];
+    }
+
+    // locks every stripe the keys fall on, lowest stripe first, and returns
+    // them in that order for unlockAll
+    ReentrantLock[] lockAll(Iterable<String> keys) {
+        boolean[] wanted = new boolean[locks.length];
+        int count = 0;
+        for (String key : keys) {
+            int i = indexOf(key);
+            if (!wanted[i]) {
+                wanted[i] = true;
+                count++;
+            }
+        }
+        ReentrantLock[] held = new ReentrantLock[count];
+        int n = 0;
+        for (int i = 0; i < locks.length; i++) {
+            if (wanted[i]) {
+                locks[i].lock();
+                held[n++] = locks[i];
+            }
+        }
+        return held;
+    }
+
+    static void unlockAll(ReentrantLock[] held) {
+        for (int i = held.length - 1; i >= 0; i--) {
+            held[i].unlock();
+        }
+    }
+
+    int size() {
+        return locks.length;
+    }
+
+    private int indexOf(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);   // spread the high bits, as HashMap does
+        return h & (locks.length - 1);
+    }
+}
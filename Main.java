@@ -1,3 +1,8 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -6,6 +11,8 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 // Interactive GardenMate System - Gardeners can make their own reservations
 public class Main {
@@ -13,11 +20,63 @@ public class Main {
     private static Gardener currentGardener;
     private static Scanner scanner;
     private static List<Crop> availableCrops;
+    private static Path catalogDir;
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int DEFAULT_HTTP_PORT = 8080;
+    private static final long SNAPSHOT_PERIOD_MILLIS = 10 * 60 * 1000;
+    private static final String MAPPED_SNAPSHOT_FILE = "garden.mapped";
 
+    // --http [port] [--state dir] serves the sample garden over HTTP instead
+    // of the menus; with --state it is kept on disk in dir across restarts.
+    // --catalog dir loads plots and crops (and any gardeners and
+    // reservations) from the CSV files in dir instead of the samples.
+    // --report dir prints a summary of the garden kept in dir by a running
+    // --state server, mapping its snapshot read-only instead of loading it.
     public static void main(String[] args) {
+        boolean http = false;
+        int port = DEFAULT_HTTP_PORT;
+        Path stateDir = null;
+        Path reportDir = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--http")) {
+                http = true;
+            } else if (args[i].equals("--state") && i + 1 < args.length) {
+                stateDir = Paths.get(args[++i]);
+            } else if (args[i].equals("--catalog") && i + 1 < args.length) {
+                catalogDir = Paths.get(args[++i]);
+            } else if (args[i].equals("--report") && i + 1 < args.length) {
+                reportDir = Paths.get(args[++i]);
+            } else if (http && i > 0 && args[i - 1].equals("--http") && args[i].matches("\\d{1,5}") &&
+                       Integer.parseInt(args[i]) <= 65535) {
+                port = Integer.parseInt(args[i]);
+            } else {
+                if (args[i].equals("--state") || args[i].equals("--catalog") || args[i].equals("--report")) {
+                    System.out.println("Error: " + args[i] + " needs a directory");
+                } else if (!args[i].equals("--help")) {
+                    System.out.println("Error: Unexpected argument - " + args[i]);
+                }
+                printUsage();
+                return;
+            }
+        }
+        // the menus keep no journal, so --state would silently lose every change
+        if (stateDir != null && !http && reportDir == null) {
+            System.out.println("Error: --state only works with --http");
+            printUsage();
+            return;
+        }
+        if (reportDir != null) {
+            printSnapshotReport(reportDir);
+            return;
+        }
+        if (http) {
+            serveHttp(port, stateDir);
+            return;
+        }
         scanner = new Scanner(System.in);
-        initializeSystem();
+        if (!initializeSystem(false)) {
+            return;
+        }
         
         printWelcome();
         
@@ -36,9 +95,118 @@ public class Main {
         scanner.close();
     }
 
-    private static void initializeSystem() {
-        system = new GardenSystem();
-        
+    private static void serveHttp(int port, Path stateDir) {
+        if (stateDir == null ? !initializeSystem(true) : !openState(stateDir)) {
+            return;
+        }
+        try {
+            GardenHttpServer server = new GardenHttpServer(system, port);
+            server.start();
+            System.out.println("GardenMate HTTP API listening on http://localhost:" + server.getPort() + "/");
+        } catch (IOException e) {
+            System.out.println("Error: Could not start HTTP server - " + e.getMessage());
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java Main [--http [port]] [--state dir] [--catalog dir] | --report dir");
+        System.out.println("  --http [port]   serve the garden over HTTP (port " + DEFAULT_HTTP_PORT + " by default)");
+        System.out.println("  --state dir     keep the garden on disk in dir across restarts (with --http)");
+        System.out.println("  --catalog dir   load plots and crops from the CSV files in dir");
+        System.out.println("  --report dir    print a summary of the garden a --state server keeps in dir");
+        System.out.println("For large gardens start the JVM with -Xms2g -Xmx2g -Xmn1g: --state loads");
+        System.out.println("a million reservations in under a second that way (see README.txt)");
+    }
+
+    // reads the mapped snapshot the --state server writes; never touches
+    // its journal, so it can run alongside the server
+    private static void printSnapshotReport(Path stateDir) {
+        Path mappedFile = stateDir.resolve(MAPPED_SNAPSHOT_FILE);
+        try {
+            MappedSnapshot snapshot = MappedSnapshot.open(mappedFile);
+            System.out.print(snapshot.generateSummaryReport());
+            System.out.println("(as of journal offset " + snapshot.getJournalOffset() + ")");
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error: Could not read the snapshot " + mappedFile + " - " + e.getMessage());
+        }
+    }
+
+    // recovers the garden saved in stateDir (latest snapshot + journal tail),
+    // then journals every change there and snapshots it periodically
+    private static boolean openState(Path stateDir) {
+        Path snapshotFile = stateDir.resolve("garden.snapshot");
+        Path journalFile = stateDir.resolve("garden.journal");
+        system = new GardenSystem(Clock.systemDefaultZone(), new SequentialIdGenerator(), true);
+        // crops first, so replayed planting plans share the catalog's crops
+        if (!loadCrops()) {
+            return false;
+        }
+        try {
+            Files.createDirectories(stateDir);
+            long start = System.nanoTime();
+            GardenSnapshot.recover(snapshotFile, journalFile, system);
+            System.out.println("Recovered " + system.getReservations().size() + " reservations from " + stateDir +
+                               " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            system.setJournal(GardenJournal.open(journalFile));
+        } catch (IOException e) {
+            System.out.println("Error: Could not recover the garden from " + stateDir + " - " + e.getMessage());
+            return false;
+        }
+        if (system.getPlots().isEmpty() && !loadPlots()) {   // first start
+            return false;
+        }
+        SnapshotScheduler snapshots = new SnapshotScheduler(system, snapshotFile,
+                                                            stateDir.resolve(MAPPED_SNAPSHOT_FILE), SNAPSHOT_PERIOD_MILLIS);
+        try {
+            snapshots.snapshotNow();   // so --report has something to map from the start
+        } catch (IOException e) {
+            System.out.println("Error: Snapshot failed - " + e.getMessage());
+        }
+        snapshots.start();
+        return true;
+    }
+
+    private static boolean initializeSystem(boolean concurrent) {
+        system = concurrent ?
+            new GardenSystem(Clock.systemDefaultZone(), new SequentialIdGenerator(), true) : new GardenSystem();
+        return loadCrops() && loadPlots();
+    }
+
+    // crops from --catalog, or the built-in samples
+    private static boolean loadCrops() {
+        if (catalogDir == null) {
+            addSampleCrops();
+            return true;
+        }
+        try (Stream<Crop> crops = GardenCsv.readCrops(catalogDir.resolve(GardenCsv.CROPS_FILE))) {
+            availableCrops = crops.collect(Collectors.toList());
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error: Could not load the crops from " + catalogDir + " - " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    // plots (and any gardeners and reservations) from --catalog, or the
+    // built-in samples
+    private static boolean loadPlots() {
+        if (catalogDir == null) {
+            addSamplePlots();
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            GardenCsv.load(catalogDir, system, availableCrops);   // loadCrops has read crops.csv
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error: Could not load the catalog from " + catalogDir + " - " + e.getMessage());
+            return false;
+        }
+        System.out.println("Loaded " + availableCrops.size() + " crops, " + system.getPlots().size() +
+                           " plots from " + catalogDir + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return true;
+    }
+
+    private static void addSamplePlots() {
         // Set up garden plots
         GardenPlot plot1 = new GardenPlot("P001", "Sunny Corner", 25.0, "North Section");
         GardenPlot plot2 = new GardenPlot("P002", "Shady Grove", 30.0, "East Section");
@@ -59,7 +227,9 @@ public class Main {
         system.addPlot(plot3);
         system.addPlot(plot4);
         system.addPlot(plot5);
-        
+    }
+
+    private static void addSampleCrops() {
         // Set up available crops
         availableCrops = new ArrayList<>();
         availableCrops.add(new Crop("Tomatoes", 90, 
@@ -92,6 +262,11 @@ public class Main {
         availableCrops.add(new Crop("Zucchini", 50,
             new HashSet<>(Arrays.asList(Crop.Season.SUMMER)),
             "Prolific producer"));
+
+        // share one instance per crop across the program
+        for (int i = 0; i < availableCrops.size(); i++) {
+            availableCrops.set(i, CropCatalog.shared().intern(availableCrops.get(i)));
+        }
     }
 
     private static void printWelcome() {
@@ -261,13 +436,14 @@ public class Main {
         System.out.println("         ALL GARDEN PLOTS               ");
         System.out.println("═══════════════════════════════════════\n");
         
+        long today = system.today().toEpochDay();
         for (GardenPlot plot : system.getPlots()) {
             System.out.println("┌─────────────────────────────────────┐");
             System.out.println("│ " + padRight(plot.getName() + " (" + plot.getPlotID() + ")", 35) + " │");
             System.out.println("├─────────────────────────────────────┤");
             System.out.println("│ Size: " + padRight(plot.getSizeSqMeters() + " m²", 29) + " │");
             System.out.println("│ Location: " + padRight(plot.getLocation() != null ? plot.getLocation() : "N/A", 25) + " │");
-            System.out.println("│ Status: " + padRight(plot.isCurrentlyOccupied() ? "OCCUPIED" : "AVAILABLE", 27) + " │");
+            System.out.println("│ Status: " + padRight(plot.isOccupiedOn(today) ? "OCCUPIED" : "AVAILABLE", 27) + " │");
             if (!plot.getAllowedCrops().isEmpty()) {
                 System.out.println("│ Restricted to: " + padRight(plot.getAllowedCrops().toString(), 19) + " │");
             }
@@ -322,6 +498,14 @@ public class Main {
         List<GardenPlot> available = system.findAvailablePlots(dateRange);
         if (available.isEmpty()) {
             System.out.println("\n⚠ No plots available for the selected period.");
+            List<PlotWindow> suggestions = system.findEarliestWindow(
+                (int) dateRange.lengthInDays(), dateRange.getStartDate());
+            if (!suggestions.isEmpty()) {
+                System.out.println("  Earliest free periods of the same length:");
+                for (int i = 0; i < suggestions.size() && i < 3; i++) {
+                    System.out.println("    - " + suggestions.get(i));
+                }
+            }
             return;
         }
         
@@ -656,7 +840,7 @@ public class Main {
             LocalDate startDate = LocalDate.parse(startStr, DATE_FORMAT);
             LocalDate endDate = LocalDate.parse(endStr, DATE_FORMAT);
             
-            if (startDate.isBefore(LocalDate.now())) {
+            if (startDate.isBefore(system.today())) {
                 System.out.println("\n⚠ Start date cannot be in the past.");
                 return null;
             }
@@ -0,0 +1,504 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// MappedSnapshot - read-only view of a snapshot file that is memory-mapped
+// instead of loaded
+//
+// Every plot, gardener and reservation is a fixed-size record, so record i
+// is found by arithmetic and opening the file is just FileChannel.map - no
+// parsing. Strings (IDs, names, crop lists) live in a deduplicated heap at
+// the end of the file and records point into it. Sorted ID indexes allow
+// lookups by ID with a binary search over the raw UTF-8 bytes.
+//
+// The number/status accessors read straight from the mapping. getPlot,
+// getGardener and getReservation build the object the first time a record
+// is asked for and keep it; those objects are detached copies, not part of
+// any GardenSystem. Several processes can map the same file and share it
+// through the page cache. Files are limited to 2 GB (one mapping).
+//
+// Layout (big-endian):
+//   header (64 bytes): magic, version, ID sequence, journal offset, counts,
+//                      section offsets
+//   plots        32 bytes each: id, name, size, location, allowed crops
+//   gardeners    16 bytes each: id, name, email, phone
+//   reservations 32 bytes each: id, plot, gardener, status, range, plan
+//   ID indexes   int per record, record numbers sorted by ID
+//   string heap  int length + UTF-8, or int count + string refs for lists
+// String refs are heap offsets, -1 for null.
+public final class MappedSnapshot {
+    static final int MAGIC = 0x474D4150;   // "GMAP"
+    static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int PLOT_SIZE = 32;
+    private static final int GARDENER_SIZE = 16;
+    private static final int RESERVATION_SIZE = 32;
+
+    private final ByteBuffer buffer;
+    private final long idSequence;
+    private final long journalOffset;
+    private final int plotCount;
+    private final int gardenerCount;
+    private final int reservationCount;
+    private final int plotTable;
+    private final int gardenerTable;
+    private final int reservationTable;
+    private final int plotIdIndex;
+    private final int gardenerIdIndex;
+    private final int reservationIdIndex;
+    private final int heap;
+    // decoded on first access
+    private final AtomicReferenceArray<GardenPlot> plots;
+    private final AtomicReferenceArray<Gardener> gardeners;
+    private final AtomicReferenceArray<Reservation> reservations;
+
+    private MappedSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+            throw new IOException("Not a mapped garden snapshot (or an unsupported version)");
+        }
+        this.buffer = buffer;
+        this.idSequence = buffer.getLong(8);
+        this.journalOffset = buffer.getLong(16);
+        this.plotCount = buffer.getInt(24);
+        this.gardenerCount = buffer.getInt(28);
+        this.reservationCount = buffer.getInt(32);
+        this.plotTable = buffer.getInt(36);
+        this.gardenerTable = buffer.getInt(40);
+        this.reservationTable = buffer.getInt(44);
+        this.plotIdIndex = buffer.getInt(48);
+        this.gardenerIdIndex = buffer.getInt(52);
+        this.reservationIdIndex = buffer.getInt(56);
+        this.heap = buffer.getInt(60);
+        this.plots = new AtomicReferenceArray<>(plotCount);
+        this.gardeners = new AtomicReferenceArray<>(gardenerCount);
+        this.reservations = new AtomicReferenceArray<>(reservationCount);
+    }
+
+    // maps the file read-only; nothing is decoded yet
+    public static MappedSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + channel.size() + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedSnapshot(mapped);   // the mapping outlives the channel
+        }
+    }
+
+    // getters
+
+    public long getIdSequence() {
+        return idSequence;
+    }
+
+    public long getJournalOffset() {
+        return journalOffset;
+    }
+
+    public int getPlotCount() {
+        return plotCount;
+    }
+
+    public int getGardenerCount() {
+        return gardenerCount;
+    }
+
+    public int getReservationCount() {
+        return reservationCount;
+    }
+
+    // raw record fields - read from the mapping, nothing kept
+
+    public String getReservationId(int i) {
+        return string(reservationRecord(i));
+    }
+
+    public ReservationStatus getStatus(int i) {
+        return ReservationStatus.values()[buffer.get(reservationRecord(i) + 12)];
+    }
+
+    public DateRange getDateRange(int i) {
+        return DateRange.fromPacked(buffer.getLong(reservationRecord(i) + 16));
+    }
+
+    // record number of the reservation's plot / gardener
+    public int getPlotIndex(int i) {
+        return buffer.getInt(reservationRecord(i) + 4);
+    }
+
+    public int getGardenerIndex(int i) {
+        return buffer.getInt(reservationRecord(i) + 8);
+    }
+
+    // decoded records - built on first access, then shared
+
+    public GardenPlot getPlot(int i) {
+        GardenPlot plot = plots.get(checkIndex(i, plotCount));
+        if (plot == null) {
+            int at = plotTable + i * PLOT_SIZE;
+            plot = new GardenPlot(string(at), string(at + 4), buffer.getDouble(at + 8), string(at + 16));
+            for (String crop : stringList(buffer.getInt(at + 20))) {
+                plot.addAllowedCrop(crop);
+            }
+            plots.compareAndSet(i, null, plot);
+            plot = plots.get(i);
+        }
+        return plot;
+    }
+
+    public Gardener getGardener(int i) {
+        Gardener gardener = gardeners.get(checkIndex(i, gardenerCount));
+        if (gardener == null) {
+            int at = gardenerTable + i * GARDENER_SIZE;
+            gardener = new Gardener(string(at), string(at + 4), string(at + 8), string(at + 12));
+            gardeners.compareAndSet(i, null, gardener);
+            gardener = gardeners.get(i);
+        }
+        return gardener;
+    }
+
+    public Reservation getReservation(int i) {
+        Reservation reservation = reservations.get(checkIndex(i, reservationCount));
+        if (reservation == null) {
+            int at = reservationRecord(i);
+            List<Crop> plan = new ArrayList<>();
+            for (String name : stringList(buffer.getInt(at + 24))) {
+                Crop crop = CropCatalog.shared().get(name);
+                plan.add(crop != null ? crop : new Crop(name));
+            }
+            reservation = new Reservation(string(at), getPlot(buffer.getInt(at + 4)),
+                                          getGardener(buffer.getInt(at + 8)), getDateRange(i), plan,
+                                          getStatus(i));
+            reservations.compareAndSet(i, null, reservation);
+            reservation = reservations.get(i);
+        }
+        return reservation;
+    }
+
+    // lookups by ID (binary search on the ID indexes)
+
+    public GardenPlot findPlotById(String plotId) {
+        int i = search(plotIdIndex, plotCount, plotTable, PLOT_SIZE, plotId);
+        return i >= 0 ? getPlot(i) : null;
+    }
+
+    public Gardener findGardenerById(String gardenerId) {
+        int i = search(gardenerIdIndex, gardenerCount, gardenerTable, GARDENER_SIZE, gardenerId);
+        return i >= 0 ? getGardener(i) : null;
+    }
+
+    public Reservation findReservationById(String reservationId) {
+        int i = search(reservationIdIndex, reservationCount, reservationTable, RESERVATION_SIZE, reservationId);
+        return i >= 0 ? getReservation(i) : null;
+    }
+
+    // reports straight from the mapping
+
+    // reservations per status, indexed by ReservationStatus.ordinal()
+    public int[] countByStatus() {
+        int[] counts = new int[ReservationStatus.values().length];
+        for (int i = 0; i < reservationCount; i++) {
+            counts[buffer.get(reservationTable + i * RESERVATION_SIZE + 12)]++;
+        }
+        return counts;
+    }
+
+    // the planting summary for reporting processes - counts come straight
+    // from the mapping, only the plot records are decoded
+    public String generateSummaryReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("═══════════════════════════════════════\n");
+        sb.append("      GARDENMATE SNAPSHOT REPORT       \n");
+        sb.append("═══════════════════════════════════════\n\n");
+
+        sb.append("SUMMARY\n");
+        sb.append("───────────────────────────────────────\n");
+        sb.append("Total Plots: ").append(plotCount).append("\n");
+        sb.append("Total Gardeners: ").append(gardenerCount).append("\n");
+        sb.append("Total Reservations: ").append(reservationCount).append("\n");
+        int[] byStatus = countByStatus();
+        for (ReservationStatus status : ReservationStatus.values()) {
+            sb.append("  ").append(status).append(": ").append(byStatus[status.ordinal()]).append("\n");
+        }
+
+        int[] activePerPlot = new int[plotCount];
+        for (int i = 0; i < reservationCount; i++) {
+            if (getStatus(i).isActive()) {
+                activePerPlot[getPlotIndex(i)]++;
+            }
+        }
+        sb.append("\nACTIVE RESERVATIONS PER PLOT\n");
+        sb.append("───────────────────────────────────────\n");
+        for (int i = 0; i < plotCount; i++) {
+            GardenPlot plot = getPlot(i);
+            sb.append("Plot: ").append(plot.getName()).append(" (").append(plot.getPlotID()).append(") - ");
+            sb.append(activePerPlot[i]).append("\n");
+        }
+        if (plotCount == 0) {
+            sb.append("No plots in the snapshot.\n");
+        }
+        return sb.toString();
+    }
+
+    // records decoded so far (package-private - for tests)
+    int decodedReservationCount() {
+        int decoded = 0;
+        for (int i = 0; i < reservationCount; i++) {
+            if (reservations.get(i) != null) decoded++;
+        }
+        return decoded;
+    }
+
+    // writing
+
+    // writes the system's current state; like GardenSnapshot, it goes to a
+    // temporary file that is renamed into place
+    public static void write(Path file, GardenSystem system, long journalOffset) throws IOException {
+        List<GardenPlot> plotList = new ArrayList<>(system.getPlots());
+        List<Gardener> gardenerList = new ArrayList<>(system.getGardeners());
+        long idSequence = system.getIdGenerator().currentSequence();
+        Map<GardenPlot, Integer> plotIndex = indexOf(plotList);
+        Map<Gardener, Integer> gardenerIndex = indexOf(gardenerList);
+        List<Reservation> reservationList = new ArrayList<>();
+        for (Reservation reservation : system.getReservations()) {
+            if (plotIndex.containsKey(reservation.getPlot()) && gardenerIndex.containsKey(reservation.getGardener())) {
+                reservationList.add(reservation);
+            }
+        }
+
+        StringHeap strings = new StringHeap();
+        int plotTable = HEADER_SIZE;
+        int gardenerTable = plotTable + plotList.size() * PLOT_SIZE;
+        int reservationTable = gardenerTable + gardenerList.size() * GARDENER_SIZE;
+        int plotIdIndex = reservationTable + reservationList.size() * RESERVATION_SIZE;
+        int gardenerIdIndex = plotIdIndex + plotList.size() * 4;
+        int reservationIdIndex = gardenerIdIndex + gardenerList.size() * 4;
+        int heapStart = reservationIdIndex + reservationList.size() * 4;
+
+        ByteBuffer tables = ByteBuffer.allocate(heapStart);
+        tables.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+        tables.putLong(idSequence).putLong(journalOffset);
+        tables.putInt(plotList.size()).putInt(gardenerList.size()).putInt(reservationList.size());
+        tables.putInt(plotTable).putInt(gardenerTable).putInt(reservationTable);
+        tables.putInt(plotIdIndex).putInt(gardenerIdIndex).putInt(reservationIdIndex).putInt(heapStart);
+
+        byte[][] plotIds = new byte[plotList.size()][];
+        for (int i = 0; i < plotList.size(); i++) {
+            GardenPlot plot = plotList.get(i);
+            List<String> allowed = new ArrayList<>();
+            for (int ordinal : plot.allowedCropOrdinals()) {
+                allowed.add(CropCatalog.shared().keyOf(ordinal));
+            }
+            plotIds[i] = utf8(plot.getPlotID());
+            tables.putInt(strings.add(plot.getPlotID())).putInt(strings.add(plot.getName()))
+                  .putDouble(plot.getSizeSqMeters()).putInt(strings.add(plot.getLocation()))
+                  .putInt(strings.addList(allowed)).putLong(0);
+        }
+        byte[][] gardenerIds = new byte[gardenerList.size()][];
+        for (int i = 0; i < gardenerList.size(); i++) {
+            Gardener gardener = gardenerList.get(i);
+            gardenerIds[i] = utf8(gardener.getGardenerID());
+            tables.putInt(strings.add(gardener.getGardenerID())).putInt(strings.add(gardener.getName()))
+                  .putInt(strings.add(gardener.getEmail())).putInt(strings.add(gardener.getPhoneNumber()));
+        }
+        byte[][] reservationIds = new byte[reservationList.size()][];
+        for (int i = 0; i < reservationList.size(); i++) {
+            Reservation reservation = reservationList.get(i);
+            List<String> plan = new ArrayList<>();
+            for (Crop crop : reservation.getPlantingPlan()) {
+                plan.add(crop.getName());
+            }
+            reservationIds[i] = utf8(reservation.getReservationID());
+            tables.putInt(strings.add(reservation.getReservationID()))
+                  .putInt(plotIndex.get(reservation.getPlot()))
+                  .putInt(gardenerIndex.get(reservation.getGardener()))
+                  .put((byte) reservation.getPlot().statusOf(reservation).ordinal()).put((byte) 0).putShort((short) 0)
+                  .putLong(reservation.getPackedRange())
+                  .putInt(strings.addList(plan)).putInt(0);
+        }
+        putSortedIndex(tables, plotIds);
+        putSortedIndex(tables, gardenerIds);
+        putSortedIndex(tables, reservationIds);
+        if ((long) heapStart + strings.size() > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot would exceed 2 GB");
+        }
+        tables.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (tables.hasRemaining()) {
+                channel.write(tables);
+            }
+            ByteBuffer heapBytes = ByteBuffer.wrap(strings.bytes(), 0, strings.size());
+            while (heapBytes.hasRemaining()) {
+                channel.write(heapBytes);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // helpers
+
+    private int reservationRecord(int i) {
+        return reservationTable + checkIndex(i, reservationCount) * RESERVATION_SIZE;
+    }
+
+    private static int checkIndex(int i, int count) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Record " + i + " of " + count);
+        }
+        return i;
+    }
+
+    // the string whose heap ref is stored at 'refAt'
+    private String string(int refAt) {
+        int ref = buffer.getInt(refAt);
+        return ref < 0 ? null : heapString(ref);
+    }
+
+    private String heapString(int ref) {
+        int length = buffer.getInt(heap + ref);
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(heap + ref + 4);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<String> stringList(int ref) {
+        if (ref < 0) return new ArrayList<>();
+        int count = buffer.getInt(heap + ref);
+        List<String> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(heapString(buffer.getInt(heap + ref + 4 + i * 4)));
+        }
+        return list;
+    }
+
+    // record number with that ID, or -1; compares UTF-8 bytes unsigned,
+    // the order the index was sorted in
+    private int search(int index, int count, int table, int recordSize, String id) {
+        if (id == null) return -1;
+        byte[] target = utf8(id);
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int record = buffer.getInt(index + mid * 4);
+            int cmp = compareHeapString(buffer.getInt(table + record * recordSize), target);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    private int compareHeapString(int ref, byte[] target) {
+        int length = buffer.getInt(heap + ref);
+        int start = heap + ref + 4;
+        for (int i = 0; i < Math.min(length, target.length); i++) {
+            int cmp = Integer.compare(buffer.get(start + i) & 0xFF, target[i] & 0xFF);
+            if (cmp != 0) return cmp;
+        }
+        return Integer.compare(length, target.length);
+    }
+
+    private static void putSortedIndex(ByteBuffer out, byte[][] ids) {
+        Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(ids[a], ids[b]));
+        for (int record : order) {
+            out.putInt(record);
+        }
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static <T> Map<T, Integer> indexOf(List<T> items) {
+        Map<T, Integer> index = new IdentityHashMap<>(items.size() * 2);
+        for (int i = 0; i < items.size(); i++) {
+            index.put(items.get(i), i);
+        }
+        return index;
+    }
+
+    // deduplicated strings and string lists, as heap offsets
+    private static final class StringHeap {
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Map<List<String>, Integer> lists = new HashMap<>();
+        private ByteBuffer heap = ByteBuffer.allocate(1 << 16);
+
+        int add(String s) {
+            if (s == null) return -1;
+            Integer ref = strings.get(s);
+            if (ref == null) {
+                byte[] bytes = utf8(s);
+                ref = reserve(4 + bytes.length);
+                heap.putInt(bytes.length).put(bytes);
+                strings.put(s, ref);
+            }
+            return ref;
+        }
+
+        int addList(List<String> items) {
+            if (items.isEmpty()) return -1;
+            Integer ref = lists.get(items);
+            if (ref == null) {
+                int[] refs = new int[items.size()];
+                for (int i = 0; i < refs.length; i++) {
+                    refs[i] = add(items.get(i));
+                }
+                ref = reserve(4 + refs.length * 4);
+                heap.putInt(refs.length);
+                for (int r : refs) {
+                    heap.putInt(r);
+                }
+                lists.put(items, ref);
+            }
+            return ref;
+        }
+
+        int size() {
+            return heap.position();
+        }
+
+        byte[] bytes() {
+            return heap.array();
+        }
+
+        // grows the heap if needed; returns where the next bytes go
+        private int reserve(int length) {
+            if (heap.remaining() < length) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(heap.capacity() * 2, heap.position() + length));
+                heap.flip();
+                bigger.put(heap);
+                heap = bigger;
+            }
+            return heap.position();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+// OccupancyCalendar - one bit per day, keyed on LocalDate.toEpochDay()
+// A set bit means the plot is taken by a confirmed reservation that day.
+// Range checks test whole 64-day words at a time, so a season-long
+// availability check is a handful of long ANDs.
+//
+// Writers are serialized by the owning plot's write lock. Readers may run
+// without any lock (the plot validates their stamp afterwards): the words and
+// their starting index live in one Span that is republished after every
+// change, so even a torn read sees a matching pair and never indexes past
+// the array.
+//
+// Only the bookable years (PackedDateRange) can be set, so a calendar never
+// grows past ~1,700 words however far apart a plot's bookings are.
+final class OccupancyCalendar {
+    private static final Span EMPTY = new Span(0, new long[0]);
+    private static final long FIRST_WORD = Math.floorDiv(PackedDateRange.FIRST_BOOKABLE_DAY, 64);
+    private static final long LAST_WORD = Math.floorDiv(PackedDateRange.LAST_BOOKABLE_DAY, 64);
+
+    private volatile Span span;
+
+    OccupancyCalendar() {
+        this.span = EMPTY;
+    }
+
+    boolean isEmpty() {
+        for (long w : span.words) {
+            if (w != 0) return false;
+        }
+        return true;
+    }
+
+    boolean isSet(long epochDay) {
+        return isAnySet(epochDay, epochDay);
+    }
+
+    // true if any day in [startDay, endDay] is occupied
+    boolean isAnySet(long startDay, long endDay) {
+        Span s = span;
+        long lastWord = s.firstWord + s.words.length - 1;
+        long from = Math.max(Math.floorDiv(startDay, 64), s.firstWord);
+        long to = Math.min(Math.floorDiv(endDay, 64), lastWord);
+        for (long w = from; w <= to; w++) {
+            if ((s.words[(int) (w - s.firstWord)] & mask(w, startDay, endDay)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void set(long startDay, long endDay) {
+        if (startDay < PackedDateRange.FIRST_BOOKABLE_DAY || endDay > PackedDateRange.LAST_BOOKABLE_DAY) {
+            throw new IllegalArgumentException("Days outside the bookable years: " + startDay + ".." + endDay);
+        }
+        Span s = ensureCovers(Math.floorDiv(startDay, 64), Math.floorDiv(endDay, 64));
+        for (long w = Math.floorDiv(startDay, 64); w <= Math.floorDiv(endDay, 64); w++) {
+            s.words[(int) (w - s.firstWord)] |= mask(w, startDay, endDay);
+        }
+        span = s;
+    }
+
+    void clear(long startDay, long endDay) {
+        Span s = span;
+        long lastWord = s.firstWord + s.words.length - 1;
+        long from = Math.max(Math.floorDiv(startDay, 64), s.firstWord);
+        long to = Math.min(Math.floorDiv(endDay, 64), lastWord);
+        for (long w = from; w <= to; w++) {
+            s.words[(int) (w - s.firstWord)] &= ~mask(w, startDay, endDay);
+        }
+        span = s;
+    }
+
+    // bits of word w that fall inside [startDay, endDay]
+    private static long mask(long w, long startDay, long endDay) {
+        long wordStart = w * 64;
+        int lo = (int) Math.max(0, startDay - wordStart);
+        int hi = (int) Math.min(63, endDay - wordStart);
+        return (-1L >>> (63 - hi)) & (-1L << lo);
+    }
+
+    // the current span if it already covers the words, otherwise a grown
+    // copy - readers keep using the old one until it is published
+    private Span ensureCovers(long fromWord, long toWord) {
+        Span s = span;
+        if (s.words.length == 0) {
+            return new Span(fromWord, new long[(int) (toWord - fromWord + 1)]);
+        }
+        long lastWord = s.firstWord + s.words.length - 1;
+        if (fromWord >= s.firstWord && toWord <= lastWord) return s;
+
+        // grow with some slack so a plot booked season after season
+        // doesn't reallocate on every new booking
+        long newFirst = Math.min(fromWord, s.firstWord);
+        long newLast = Math.max(toWord, lastWord);
+        if (newFirst < s.firstWord) newFirst = Math.max(FIRST_WORD, newFirst - s.words.length / 2);
+        if (newLast > lastWord) newLast = Math.min(LAST_WORD, newLast + s.words.length / 2);
+
+        long[] grown = new long[(int) (newLast - newFirst + 1)];
+        System.arraycopy(s.words, 0, grown, (int) (s.firstWord - newFirst), s.words.length);
+        return new Span(newFirst, grown);
+    }
+
+    private static final class Span {
+        final long firstWord;  // absolute word index (epochDay / 64) of words[0]
+        final long[] words;
+
+        Span(long firstWord, long[] words) {
+            this.firstWord = firstWord;
+            this.words = words;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// OccupancyTree - how many plots are taken on each day, across a whole GardenSystem
+// A segment tree over epoch days with lazy range add: every confirmed
+// reservation adds +1 over its days, and cancel/complete adds -1. Each node
+// keeps the minimum of its range (own pending add included), so "which days
+// have at most N plots taken" can skip whole sub-ranges that are too busy.
+// The covered window grows (by rebuilding) when a booking falls outside it,
+// but never past the bookable years (PackedDateRange): days outside them
+// are not counted, so at most ~110k leaves are ever allocated.
+final class OccupancyTree {
+    private static final int FIRST_DAY = PackedDateRange.FIRST_BOOKABLE_DAY;
+    private static final int LAST_DAY = PackedDateRange.LAST_BOOKABLE_DAY;
+    private static final int MAX_SIZE = Integer.highestOneBit(LAST_DAY - FIRST_DAY) << 1;
+
+    private int origin;   // epoch day of leaf 0
+    private int size;     // number of leaves, a power of two (0 = nothing booked yet)
+    private int[] min;    // min over the node's range, including lazy[node]
+    private int[] lazy;   // amount added to the node's whole range
+
+    OccupancyTree() {
+        this.origin = 0;
+        this.size = 0;
+        this.min = new int[0];
+        this.lazy = new int[0];
+    }
+
+    // adds delta to every day in [startDay, endDay] that is bookable
+    void add(int startDay, int endDay, int delta) {
+        startDay = Math.max(startDay, FIRST_DAY);
+        endDay = Math.min(endDay, LAST_DAY);
+        if (startDay > endDay) return;
+        ensureCovers(startDay, endDay);
+        add(1, 0, size - 1, startDay - origin, endDay - origin, delta);
+    }
+
+    // occupied count for each day of [startDay, endDay]
+    int[] counts(int startDay, int endDay) {
+        int[] out = new int[endDay - startDay + 1];
+        int lo = Math.max(startDay, origin);
+        int hi = Math.min(endDay, origin + size - 1);
+        if (lo <= hi) {
+            collect(1, 0, size - 1, lo - origin, hi - origin, 0, out, origin - startDay);
+        }
+        return out;
+    }
+
+    // days in [startDay, endDay] whose count is <= maxCount, ascending
+    List<Integer> daysAtMost(int startDay, int endDay, int maxCount) {
+        List<Integer> out = new ArrayList<>();
+        if (maxCount < 0) return out;
+
+        // days outside the window have a count of 0
+        int lo = Math.max(startDay, origin);
+        int hi = Math.min(endDay, origin + size - 1);
+        for (int day = startDay; day <= endDay && day < lo; day++) {
+            out.add(day);
+        }
+        if (lo <= hi) {
+            findAtMost(1, 0, size - 1, lo - origin, hi - origin, 0, maxCount, out);
+        }
+        for (int day = Math.max(startDay, hi + 1); day <= endDay; day++) {
+            out.add(day);
+        }
+        return out;
+    }
+
+    private void add(int node, int nodeLo, int nodeHi, int lo, int hi, int delta) {
+        if (hi < nodeLo || nodeHi < lo) return;
+        if (lo <= nodeLo && nodeHi <= hi) {
+            min[node] += delta;
+            lazy[node] += delta;
+            return;
+        }
+        int mid = (nodeLo + nodeHi) >>> 1;
+        add(2 * node, nodeLo, mid, lo, hi, delta);
+        add(2 * node + 1, mid + 1, nodeHi, lo, hi, delta);
+        min[node] = Math.min(min[2 * node], min[2 * node + 1]) + lazy[node];
+    }
+
+    // 'above' is the sum of pending adds on the node's ancestors
+    private void collect(int node, int nodeLo, int nodeHi, int lo, int hi,
+                         int above, int[] out, int shift) {
+        if (hi < nodeLo || nodeHi < lo) return;
+        if (nodeLo == nodeHi) {
+            out[nodeLo + shift] = above + min[node];
+            return;
+        }
+        int mid = (nodeLo + nodeHi) >>> 1;
+        int pending = above + lazy[node];
+        collect(2 * node, nodeLo, mid, lo, hi, pending, out, shift);
+        collect(2 * node + 1, mid + 1, nodeHi, lo, hi, pending, out, shift);
+    }
+
+    private void findAtMost(int node, int nodeLo, int nodeHi, int lo, int hi,
+                            int above, int maxCount, List<Integer> out) {
+        if (hi < nodeLo || nodeHi < lo) return;
+        if (above + min[node] > maxCount) return;  // every day here is too busy
+        if (nodeLo == nodeHi) {
+            out.add(origin + nodeLo);
+            return;
+        }
+        int mid = (nodeLo + nodeHi) >>> 1;
+        int pending = above + lazy[node];
+        findAtMost(2 * node, nodeLo, mid, lo, hi, pending, maxCount, out);
+        findAtMost(2 * node + 1, mid + 1, nodeHi, lo, hi, pending, maxCount, out);
+    }
+
+    private void ensureCovers(int startDay, int endDay) {
+        if (size > 0 && startDay >= origin && endDay <= origin + size - 1) return;
+
+        long newFirst = size == 0 ? startDay : Math.min(startDay, origin);
+        long newLast = size == 0 ? endDay : Math.max(endDay, (long) origin + size - 1);
+        long needed = newLast - newFirst + 1;
+        int newSize = 64;
+        while (newSize < needed * 2 && newSize < MAX_SIZE) {
+            newSize <<= 1;
+        }
+        // leave room on both sides so a season of bookings doesn't keep rebuilding
+        int newOrigin = (int) (newFirst - (newSize - needed) / 2);
+
+        int[] values = size == 0 ? new int[0] : counts(origin, origin + size - 1);
+        int oldOrigin = origin;
+
+        origin = newOrigin;
+        size = newSize;
+        min = new int[2 * newSize];
+        lazy = new int[2 * newSize];
+        for (int i = 0; i < values.length; i++) {
+            int leaf = newSize + (oldOrigin + i - newOrigin);
+            min[leaf] = values[i];
+        }
+        for (int node = newSize - 1; node >= 1; node--) {
+            min[node] = Math.min(min[2 * node], min[2 * node + 1]);
+        }
+    }
+}
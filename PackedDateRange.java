@@ -0,0 +1,66 @@
+import java.time.LocalDate;
+
+// PackedDateRange - helpers for a date range packed into one long
+// The start epoch day sits in the high 32 bits and the end epoch day in the
+// low 32 bits (both inclusive). Conflict checks on packed ranges are plain
+// int comparisons - no LocalDate, no allocation.
+public final class PackedDateRange {
+    // reservations have to fall inside this window, which keeps the per-plot
+    // calendars and the system-wide occupancy tree to a bounded size
+    public static final int FIRST_BOOKABLE_DAY = (int) LocalDate.of(1900, 1, 1).toEpochDay();
+    public static final int LAST_BOOKABLE_DAY = (int) LocalDate.of(2199, 12, 31).toEpochDay();
+
+    private PackedDateRange() {
+    }
+
+    public static long pack(int startDay, int endDay) {
+        return ((long) startDay << 32) | (endDay & 0xFFFFFFFFL);
+    }
+
+    public static long of(LocalDate startDate, LocalDate endDate) {
+        return pack(toDay(startDate), toDay(endDate));
+    }
+
+    public static int start(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    public static int end(long packed) {
+        return (int) packed;
+    }
+
+    // number of days, counting both ends
+    public static int length(long packed) {
+        return end(packed) - start(packed) + 1;
+    }
+
+    public static boolean overlaps(long a, long b) {
+        return end(a) >= start(b) && start(a) <= end(b);
+    }
+
+    // true if 'outer' covers every day of 'inner'
+    public static boolean contains(long outer, long inner) {
+        return start(inner) >= start(outer) && end(inner) <= end(outer);
+    }
+
+    public static boolean containsDay(long packed, long epochDay) {
+        return epochDay >= start(packed) && epochDay <= end(packed);
+    }
+
+    public static boolean isBookable(long packed) {
+        return start(packed) >= FIRST_BOOKABLE_DAY && end(packed) <= LAST_BOOKABLE_DAY;
+    }
+
+    // epoch day of a date, as long as it fits in an int (years -5.8M to +5.8M)
+    public static int toDay(LocalDate date) {
+        long day = date.toEpochDay();
+        if (day < Integer.MIN_VALUE || day > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Date out of supported range: " + date);
+        }
+        return (int) day;
+    }
+
+    public static String toString(long packed) {
+        return LocalDate.ofEpochDay(start(packed)) + " to " + LocalDate.ofEpochDay(end(packed));
+    }
+}
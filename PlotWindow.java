@@ -0,0 +1,42 @@
+import java.util.Objects;
+
+// PlotWindow - a plot together with a free date range on it
+// Returned by GardenSystem.findEarliestWindow.
+public final class PlotWindow {
+    private final GardenPlot plot;
+    private final DateRange dateRange;
+
+    public PlotWindow(GardenPlot plot, DateRange dateRange) {
+        if (plot == null || dateRange == null) {
+            throw new IllegalArgumentException("Plot and date range cannot be null");
+        }
+        this.plot = plot;
+        this.dateRange = dateRange;
+    }
+
+    public GardenPlot getPlot() {
+        return plot;
+    }
+
+    public DateRange getDateRange() {
+        return dateRange;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PlotWindow that = (PlotWindow) o;
+        return plot.equals(that.plot) && dateRange.equals(that.dateRange);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(plot, dateRange);
+    }
+
+    @Override
+    public String toString() {
+        return plot.getName() + " (" + plot.getPlotID() + ") | " + dateRange;
+    }
+}
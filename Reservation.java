@@ -5,12 +5,18 @@ import java.util.Objects;
 
 // Reservation - links a gardener to a plot for a time period
 public class Reservation {
+    private static final List<Crop> NO_CROPS = Collections.emptyList();
+    private static final CropMask NO_CROP_MASK = new CropMask();   // never modified
+
     private final String reservationID;
     private final GardenPlot plot;
     private final Gardener gardener;
-    private final DateRange dateRange;
-    private final List<Crop> plantingPlan;
-    private ReservationStatus status;
+    private final long packedRange;        // the date range, in PackedDateRange form
+    // Most reservations never plan a crop, so an empty plan shares one list
+    // and one mask; both are only allocated when the first crop is added
+    private List<Crop> plantingPlan;
+    private CropMask plannedCrops;         // ordinals of the crops in plantingPlan
+    private volatile ReservationStatus status;
 
     // constructors
 
@@ -19,6 +25,16 @@ public class Reservation {
                        Gardener gardener,
                        DateRange dateRange,
                        List<Crop> plantingPlan) {
+        this(reservationID, plot, gardener, dateRange, plantingPlan, ReservationStatus.REQUESTED);
+    }
+
+    // starts in any status - for batch booking and reloading saved reservations
+    Reservation(String reservationID,
+                GardenPlot plot,
+                Gardener gardener,
+                DateRange dateRange,
+                List<Crop> plantingPlan,
+                ReservationStatus status) {
         if (reservationID == null || reservationID.trim().isEmpty()) {
             throw new IllegalArgumentException("Reservation ID cannot be null or empty");
         }
@@ -31,14 +47,27 @@ public class Reservation {
         if (dateRange == null) {
             throw new IllegalArgumentException("Date range cannot be null");
         }
+        if (!dateRange.isBookable()) {
+            throw new IllegalArgumentException("Date range is outside the bookable years: " + dateRange);
+        }
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
+        }
 
         this.reservationID = reservationID.trim();
         this.plot = plot;
         this.gardener = gardener;
-        this.dateRange = dateRange;
-        this.plantingPlan = plantingPlan != null ? 
-            new ArrayList<>(plantingPlan) : new ArrayList<>();
-        this.status = ReservationStatus.REQUESTED;
+        this.packedRange = dateRange.getPacked();
+        this.plantingPlan = NO_CROPS;
+        this.plannedCrops = NO_CROP_MASK;
+        if (plantingPlan != null && !plantingPlan.isEmpty()) {
+            this.plantingPlan = new ArrayList<>(plantingPlan);
+            this.plannedCrops = new CropMask();
+            for (Crop crop : this.plantingPlan) {
+                plannedCrops.add(crop.getOrdinal());
+            }
+        }
+        this.status = status;
     }
 
     public Reservation(String reservationID,
@@ -63,7 +92,12 @@ public class Reservation {
     }
 
     public DateRange getDateRange() {
-        return dateRange;
+        return DateRange.fromPacked(packedRange);
+    }
+
+    // date range as a PackedDateRange long - for the availability indexes
+    long getPackedRange() {
+        return packedRange;
     }
 
     public ReservationStatus getStatus() {
@@ -77,17 +111,26 @@ public class Reservation {
     // planting plan management
 
     public void addCrop(Crop crop) {
-        if (crop != null && !plantingPlan.contains(crop)) {
-            plantingPlan.add(crop);
+        if (crop == null || plannedCrops.contains(crop.getOrdinal())) {
+            return;
         }
+        if (plantingPlan == NO_CROPS) {
+            plantingPlan = new ArrayList<>();
+            plannedCrops = new CropMask();
+        }
+        plannedCrops.add(crop.getOrdinal());
+        plantingPlan.add(crop);
     }
 
     public void removeCrop(Crop crop) {
-        plantingPlan.remove(crop);
+        if (crop != null && plantingPlan.remove(crop) && !plantingPlan.contains(crop)) {
+            plannedCrops.remove(crop.getOrdinal());
+        }
     }
 
     public void clearPlantingPlan() {
         plantingPlan.clear();
+        plannedCrops.clear();
     }
 
     // status transitions
@@ -97,10 +140,16 @@ public class Reservation {
             throw new IllegalStateException(
                 "Cannot transition from " + status + " to " + newStatus);
         }
-        this.status = newStatus;
+        plot.statusChanging(this, newStatus);   // may refuse a double booking; sets the status
+        gardener.statusChanging(this, newStatus);
         return true;
     }
 
+    // called by GardenPlot under its write lock, once the change is journaled
+    void setStatus(ReservationStatus newStatus) {
+        this.status = newStatus;
+    }
+
     public boolean confirm() {
         return transitionTo(ReservationStatus.CONFIRMED);
     }
@@ -131,33 +180,41 @@ public class Reservation {
         return status == ReservationStatus.COMPLETED;
     }
 
+    // the no-arg checks go by the plot's system clock - prefer the as-of
+    // versions when checking many reservations
+    @Deprecated
     public boolean isCurrentlyActive() {
-        return isConfirmed() && dateRange.isCurrentlyActive();
+        return isActiveOn(plot.today().toEpochDay());
     }
 
+    public boolean isActiveOn(long epochDay) {
+        return isConfirmed() && PackedDateRange.containsDay(packedRange, epochDay);
+    }
+
+    @Deprecated
     public boolean isPeriodEnded() {
-        return dateRange.isInPast();
+        return isPeriodEndedAsOf(plot.today().toEpochDay());
+    }
+
+    public boolean isPeriodEndedAsOf(long todayEpochDay) {
+        return PackedDateRange.end(packedRange) < todayEpochDay;
     }
 
     // only confirmed reservations cause conflicts
     public boolean conflictsWith(DateRange otherRange) {
-        return status.occupiesPlot() && dateRange.overlaps(otherRange);
+        return status.occupiesPlot() && otherRange != null &&
+               PackedDateRange.overlaps(packedRange, otherRange.getPacked());
     }
 
     // validation
 
     public boolean validateCrops() {
-        for (Crop crop : plantingPlan) {
-            if (!plot.isCropAllowed(crop)) {
-                return false;
-            }
-        }
-        return true;
+        return plot.areCropsAllowed(plannedCrops);
     }
 
     public boolean validateGrowingPeriod() {
         for (Crop crop : plantingPlan) {
-            if (!crop.canGrowIn(dateRange)) {
+            if (!crop.canGrowIn(getDateRange())) {
                 return false;
             }
         }
@@ -181,6 +238,6 @@ public class Reservation {
     public String toString() {
         String crops = plantingPlan.isEmpty() ? "None" : plantingPlan.size() + " crops";
         return reservationID + " | " + gardener.getName() + " | " + plot.getName() + 
-               " | " + dateRange + " | " + status + " | " + crops;
+               " | " + getDateRange() + " | " + status + " | " + crops;
     }
 }
@@ -0,0 +1,405 @@
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// ReservationCodec - compact streaming binary form of reservations, for
+// shipping them between processes or writing them to disk
+//
+// One record per reservation:
+//   flags     1 byte: status (bits 0-1), crop count (bits 2-4, 7 = varint
+//             follows), literal ID (bit 5), same ID prefix as last (bit 6)
+//   ID        prefix ref (unless bit 6) + zigzag delta of its number from
+//             the previous record's, or a string ref for IDs with no number
+//   plot, gardener   string refs
+//   dates     zigzag delta of the start epoch day from the previous
+//             record's start, then the length in days
+//   crops     string ref per crop in the planting plan
+// All integers are varints. A string ref is 0 followed by the string the
+// first time (it gets the next code) and code + 1 after that, so the
+// dictionaries are built up by the stream itself. A typical record with
+// one crop is 7-9 bytes.
+//
+// Encoder and Decoder work on caller-owned ByteBuffers that can be reused:
+// a record that doesn't fit (or hasn't fully arrived) is left out and the
+// call reports it, with the codec state unchanged, so the caller can drain
+// or refill the buffer and try again.
+public final class ReservationCodec {
+    private static final int STATUS_MASK = 0x03;
+    private static final int CROPS_SHIFT = 2;
+    private static final int CROPS_MASK = 0x07;
+    private static final int CROPS_IN_VARINT = 7;
+    private static final int LITERAL_ID = 1 << 5;
+    private static final int SAME_PREFIX = 1 << 6;
+    private static final int MAX_ID_DIGITS = 18;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    static {
+        if (ReservationStatus.values().length > STATUS_MASK + 1) {
+            throw new IllegalStateException("ReservationStatus no longer fits in two bits");
+        }
+    }
+
+    private ReservationCodec() {
+    }
+
+    // writes every reservation to the channel through one reusable buffer
+    public static void writeAll(List<Reservation> reservations, WritableByteChannel out) throws IOException {
+        Encoder encoder = new Encoder();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        for (Reservation reservation : reservations) {
+            while (!encoder.encode(reservation, buffer)) {
+                if (buffer.position() == 0) {
+                    throw new IOException("Reservation too large to encode: " + reservation.getReservationID());
+                }
+                drain(buffer, out);
+            }
+        }
+        drain(buffer, out);
+    }
+
+    // reads reservations until the channel ends; plots and gardeners are
+    // taken from 'system' when it has them (see Decoder)
+    public static List<Reservation> readAll(ReadableByteChannel in, GardenSystem system) throws IOException {
+        Decoder decoder = new Decoder(system);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        List<Reservation> reservations = new ArrayList<>();
+        while (in.read(buffer) >= 0) {
+            buffer.flip();
+            Reservation reservation;
+            while ((reservation = decoder.decode(buffer)) != null) {
+                reservations.add(reservation);
+            }
+            if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+                throw new IOException("Reservation record larger than " + BUFFER_SIZE + " bytes");
+            }
+            buffer.compact();
+        }
+        buffer.flip();
+        if (buffer.hasRemaining()) {
+            throw new IOException("Stream ends in the middle of a reservation record");
+        }
+        return reservations;
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // encoding side - one per stream
+    public static final class Encoder {
+        private final Dictionary ids = new Dictionary();
+        private final Dictionary prefixes = new Dictionary();
+        private final Dictionary plots = new Dictionary();
+        private final Dictionary gardeners = new Dictionary();
+        private final Dictionary crops = new Dictionary();
+        private int lastPrefix = -1;
+        private long lastNumber;
+        private long lastStart;
+
+        // appends the reservation to 'out'; false (and nothing written) if
+        // it doesn't fit in the space left
+        public boolean encode(Reservation reservation, ByteBuffer out) {
+            int position = out.position();
+            int[] marks = {ids.size(), prefixes.size(), plots.size(), gardeners.size(), crops.size()};
+            int prefixBefore = lastPrefix;
+            long numberBefore = lastNumber;
+            long startBefore = lastStart;
+            try {
+                write(reservation, out);
+                return true;
+            } catch (BufferOverflowException e) {
+                out.position(position);
+                ids.truncate(marks[0]);
+                prefixes.truncate(marks[1]);
+                plots.truncate(marks[2]);
+                gardeners.truncate(marks[3]);
+                crops.truncate(marks[4]);
+                lastPrefix = prefixBefore;
+                lastNumber = numberBefore;
+                lastStart = startBefore;
+                return false;
+            }
+        }
+
+        private void write(Reservation reservation, ByteBuffer out) {
+            String id = reservation.getReservationID();
+            List<Crop> plan = reservation.getPlantingPlan();
+            int digits = trailingDigits(id);
+            int flags = reservation.getStatus().ordinal() |
+                        Math.min(plan.size(), CROPS_IN_VARINT) << CROPS_SHIFT;
+            // prefix and width together, so "R0042" and "R42" stay distinct
+            String pattern = digits > 0 ? id.substring(0, id.length() - digits) + '\0' + digits : null;
+            int prefix = -1;
+            if (digits == 0) {
+                flags |= LITERAL_ID;
+            } else {
+                prefix = prefixes.find(pattern);
+                if (prefix >= 0 && prefix == lastPrefix) {
+                    flags |= SAME_PREFIX;
+                }
+            }
+            out.put((byte) flags);
+
+            if (digits == 0) {
+                writeRef(out, ids, id);
+            } else {
+                if ((flags & SAME_PREFIX) == 0) {
+                    prefix = writeRef(out, prefixes, pattern);
+                }
+                long number = Long.parseLong(id.substring(id.length() - digits));
+                writeVarLong(out, zigzag(number - lastNumber));
+                lastPrefix = prefix;
+                lastNumber = number;
+            }
+            writeRef(out, plots, reservation.getPlot().getPlotID());
+            writeRef(out, gardeners, reservation.getGardener().getGardenerID());
+
+            long range = reservation.getPackedRange();
+            long start = PackedDateRange.start(range);
+            writeVarLong(out, zigzag(start - lastStart));
+            writeVarLong(out, PackedDateRange.end(range) - start);
+            lastStart = start;
+
+            if (plan.size() >= CROPS_IN_VARINT) {
+                writeVarLong(out, plan.size());
+            }
+            for (Crop crop : plan) {
+                writeRef(out, crops, crop.getName());
+            }
+        }
+
+        // returns the string's code
+        private static int writeRef(ByteBuffer out, Dictionary dictionary, String value) {
+            int code = dictionary.find(value);
+            if (code >= 0) {
+                writeVarLong(out, code + 1);
+                return code;
+            }
+            out.put((byte) 0);
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, utf8.length);
+            out.put(utf8);
+            return dictionary.add(value);
+        }
+    }
+
+    // decoding side - one per stream. Plots and gardeners are looked up in
+    // the given system (may be null); IDs it doesn't know get a bare
+    // GardenPlot / Gardener, shared by every record that names them. The
+    // reservations are not added to any system - bulkLoad them if needed.
+    public static final class Decoder {
+        private final GardenSystem system;
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> prefixes = new ArrayList<>();
+        private final List<GardenPlot> plots = new ArrayList<>();
+        private final List<Gardener> gardeners = new ArrayList<>();
+        private final List<Crop> crops = new ArrayList<>();
+        private int lastPrefix = -1;
+        private long lastNumber;
+        private long lastStart;
+        private int lastCode;
+
+        public Decoder(GardenSystem system) {
+            this.system = system;
+        }
+
+        // the next reservation in 'in', or null (nothing consumed) if the
+        // buffer doesn't hold a whole record yet
+        public Reservation decode(ByteBuffer in) {
+            if (!in.hasRemaining()) return null;
+            int position = in.position();
+            int[] marks = {ids.size(), prefixes.size(), plots.size(), gardeners.size(), crops.size()};
+            int prefixBefore = lastPrefix;
+            long numberBefore = lastNumber;
+            long startBefore = lastStart;
+            try {
+                return read(in);
+            } catch (BufferUnderflowException e) {
+                in.position(position);
+                truncate(ids, marks[0]);
+                truncate(prefixes, marks[1]);
+                truncate(plots, marks[2]);
+                truncate(gardeners, marks[3]);
+                truncate(crops, marks[4]);
+                lastPrefix = prefixBefore;
+                lastNumber = numberBefore;
+                lastStart = startBefore;
+                return null;
+            }
+        }
+
+        private Reservation read(ByteBuffer in) {
+            int flags = in.get() & 0xFF;
+            ReservationStatus status = ReservationStatus.values()[flags & STATUS_MASK];
+
+            String id;
+            if ((flags & LITERAL_ID) != 0) {
+                id = readRef(in, ids);
+            } else {
+                if ((flags & SAME_PREFIX) == 0) {
+                    readRef(in, prefixes);
+                    lastPrefix = lastCode;
+                }
+                String pattern = prefixes.get(lastPrefix);
+                lastNumber += unzigzag(readVarLong(in));
+                int separator = pattern.indexOf('\0');
+                int width = Integer.parseInt(pattern.substring(separator + 1));
+                id = pattern.substring(0, separator) + pad(lastNumber, width);
+            }
+
+            GardenPlot plot = readPlot(in);
+            Gardener gardener = readGardener(in);
+            int start = (int) (lastStart + unzigzag(readVarLong(in)));
+            int end = (int) (start + readVarLong(in));
+            lastStart = start;
+
+            int cropCount = (flags >>> CROPS_SHIFT) & CROPS_MASK;
+            if (cropCount == CROPS_IN_VARINT) {
+                cropCount = (int) readVarLong(in);
+            }
+            List<Crop> plan = new ArrayList<>(cropCount);
+            for (int i = 0; i < cropCount; i++) {
+                plan.add(readCrop(in));
+            }
+            return new Reservation(id, plot, gardener, DateRange.fromPacked(PackedDateRange.pack(start, end)),
+                                   plan, status);
+        }
+
+        private GardenPlot readPlot(ByteBuffer in) {
+            long ref = readVarLong(in);
+            if (ref > 0) return plots.get((int) ref - 1);
+            String plotId = readString(in);
+            GardenPlot plot = system != null ? system.findPlotById(plotId) : null;
+            plots.add(plot != null ? plot : new GardenPlot(plotId));
+            return plots.get(plots.size() - 1);
+        }
+
+        private Gardener readGardener(ByteBuffer in) {
+            long ref = readVarLong(in);
+            if (ref > 0) return gardeners.get((int) ref - 1);
+            String gardenerId = readString(in);
+            Gardener gardener = system != null ? system.findGardenerById(gardenerId) : null;
+            gardeners.add(gardener != null ? gardener : new Gardener(gardenerId));
+            return gardeners.get(gardeners.size() - 1);
+        }
+
+        private Crop readCrop(ByteBuffer in) {
+            long ref = readVarLong(in);
+            if (ref > 0) return crops.get((int) ref - 1);
+            String name = readString(in);
+            Crop crop = CropCatalog.shared().get(name);
+            crops.add(crop != null ? crop : new Crop(name));
+            return crops.get(crops.size() - 1);
+        }
+
+        // also leaves the string's code in lastCode
+        private String readRef(ByteBuffer in, List<String> dictionary) {
+            long ref = readVarLong(in);
+            if (ref > 0) {
+                lastCode = (int) ref - 1;
+                return dictionary.get(lastCode);
+            }
+            String value = readString(in);
+            lastCode = dictionary.size();
+            dictionary.add(value);
+            return value;
+        }
+
+        private static String readString(ByteBuffer in) {
+            byte[] utf8 = new byte[(int) readVarLong(in)];
+            in.get(utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        private static <T> void truncate(List<T> list, int size) {
+            list.subList(size, list.size()).clear();
+        }
+    }
+
+    // string -> code, in the order the codes were handed out
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int find(String value) {
+            Integer code = codes.get(value);
+            return code != null ? code : -1;
+        }
+
+        int add(String value) {
+            codes.put(value, values.size());
+            values.add(value);
+            return values.size() - 1;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        void truncate(int size) {
+            while (values.size() > size) {
+                codes.remove(values.remove(values.size() - 1));
+            }
+        }
+    }
+
+    // helpers
+
+    // number of decimal digits the ID ends with (0 if none, or too many to
+    // fit a long)
+    private static int trailingDigits(String id) {
+        int digits = 0;
+        for (int i = id.length() - 1; i >= 0 && id.charAt(i) >= '0' && id.charAt(i) <= '9'; i--) {
+            digits++;
+        }
+        return digits > MAX_ID_DIGITS ? 0 : digits;
+    }
+
+    private static String pad(long number, int width) {
+        StringBuilder sb = new StringBuilder(width);
+        String digits = Long.toString(number);
+        for (int i = digits.length(); i < width; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,14 @@
+// ReservationIdGenerator - hands out reservation IDs for GardenSystem
+// Implementations must be safe to call from several threads at once.
+public interface ReservationIdGenerator {
+
+    // a new, never-before-issued reservation ID
+    String nextId();
+
+    // the last sequence number handed out (0 if none yet)
+    long currentSequence();
+
+    // make sure later IDs use sequence numbers above this one
+    // (used when reloading reservations that were saved earlier)
+    void advanceTo(long sequence);
+}
@@ -0,0 +1,73 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+// ReservationLog - the append-only reservation history
+// Appends are serialized by the log's monitor; GardenSystem appends before
+// journaling a reservation, even inside a deferred batch, so a snapshot
+// never misses one its journal offset already covers. Entries sit in
+// fixed-size chunks that never move once written and the size is published
+// last, through a volatile write, so readers need no lock at all: whatever
+// size they read, the entries before it are complete.
+// Reports and snapshots copy the history without ever holding up a booking.
+final class ReservationLog extends AbstractList<Reservation> implements RandomAccess {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile Reservation[][] chunks = new Reservation[4][];
+    private volatile int size;
+
+    @Override
+    public Reservation get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends Reservation> batch) {
+        int n = size;
+        Reservation[][] directory = chunks;
+        for (Reservation reservation : batch) {
+            int chunk = n >>> CHUNK_BITS;
+            if (chunk == directory.length) {
+                directory = Arrays.copyOf(directory, directory.length * 2);
+                chunks = directory;
+            }
+            if (directory[chunk] == null) {
+                directory[chunk] = new Reservation[CHUNK_SIZE];
+            }
+            directory[chunk][n & CHUNK_MASK] = reservation;
+            n++;
+        }
+        size = n;   // publishes the new entries
+        return !batch.isEmpty();
+    }
+
+    @Override
+    public boolean add(Reservation reservation) {
+        return addAll(List.of(reservation));
+    }
+
+    // a consistent copy of the history - lock-free
+    List<Reservation> snapshot() {
+        int n = size;
+        Reservation[][] directory = chunks;
+        List<Reservation> copy = new ArrayList<>(n);
+        for (int chunk = 0; chunk << CHUNK_BITS < n; chunk++) {
+            int count = Math.min(CHUNK_SIZE, n - (chunk << CHUNK_BITS));
+            copy.addAll(Arrays.asList(directory[chunk]).subList(0, count));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// ReservationPartitions - reservations grouped by status so that "active"
+// queries never walk past history. REQUESTED and CONFIRMED reservations stay
+// in booking order in the active set; CONFIRMED ones are also kept on their
+// own. Terminal (CANCELLED/COMPLETED) reservations are only counted.
+final class ReservationPartitions {
+    private final Set<Reservation> active;
+    private final Set<Reservation> confirmed;
+    private int terminalCount;
+
+    ReservationPartitions() {
+        this.active = new LinkedHashSet<>();
+        this.confirmed = new LinkedHashSet<>();
+        this.terminalCount = 0;
+    }
+
+    void add(Reservation reservation) {
+        add(reservation, reservation.getStatus());
+    }
+
+    // adds a reservation as it stood at 'status' - for updates applied
+    // after the reservation may have moved on (GardenSystem's batches)
+    void add(Reservation reservation, ReservationStatus status) {
+        if (status.isActive()) {
+            active.add(reservation);
+            if (status.occupiesPlot()) {
+                confirmed.add(reservation);
+            }
+        } else {
+            terminalCount++;
+        }
+    }
+
+    void remove(Reservation reservation) {
+        if (active.remove(reservation)) {
+            confirmed.remove(reservation);
+        } else {
+            terminalCount--;
+        }
+    }
+
+    // moves a tracked reservation from its current status to newStatus
+    void move(Reservation reservation, ReservationStatus newStatus) {
+        if (newStatus.occupiesPlot()) {
+            confirmed.add(reservation);
+        } else if (newStatus.isTerminal()) {
+            active.remove(reservation);
+            confirmed.remove(reservation);
+            terminalCount++;
+        }
+    }
+
+    // true for a REQUESTED or CONFIRMED reservation that was added here
+    boolean isTrackedActive(Reservation reservation) {
+        return active.contains(reservation);
+    }
+
+    List<Reservation> getActive() {
+        return new ArrayList<>(active);
+    }
+
+    // read-only view in booking order - for callers that only iterate
+    Set<Reservation> activeView() {
+        return Collections.unmodifiableSet(active);
+    }
+
+    int activeCount() {
+        return active.size();
+    }
+
+    int confirmedCount() {
+        return confirmed.size();
+    }
+
+    int requestedCount() {
+        return active.size() - confirmed.size();
+    }
+
+    int terminalCount() {
+        return terminalCount;
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// SequentialIdGenerator - zero-padded IDs from an atomic counter
+// Default output is R0001, R0002, ... (wider once the counter passes the pad width).
+// With a node ID the output is R003-0001, so several booking processes that
+// each use their own node ID can issue IDs without ever colliding.
+public class SequentialIdGenerator implements ReservationIdGenerator {
+    private static final int MAX_DIGITS = 19;  // Long.MAX_VALUE
+    private static final int NODE_WIDTH = 3;
+
+    private final String prefix;
+    private final int width;
+    private final long nodeId;   // -1 = single node
+    private final AtomicLong counter;
+
+    // constructors
+
+    public SequentialIdGenerator(String prefix, int width, long nodeId) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix cannot be null");
+        }
+        if (width < 1 || width > MAX_DIGITS) {
+            throw new IllegalArgumentException("Width must be between 1 and " + MAX_DIGITS);
+        }
+        if (nodeId < -1) {
+            throw new IllegalArgumentException("Node ID cannot be negative");
+        }
+        this.prefix = prefix;
+        this.width = width;
+        this.nodeId = nodeId;
+        this.counter = new AtomicLong();
+    }
+
+    public SequentialIdGenerator(String prefix, int width) {
+        this(prefix, width, -1);
+    }
+
+    public SequentialIdGenerator() {
+        this("R", 4, -1);
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public String nextId() {
+        long sequence = counter.incrementAndGet();
+        if (sequence <= 0) {
+            throw new IllegalStateException("Reservation ID sequence exhausted");
+        }
+        return format(sequence);
+    }
+
+    @Override
+    public long currentSequence() {
+        return counter.get();
+    }
+
+    @Override
+    public void advanceTo(long sequence) {
+        counter.accumulateAndGet(sequence, Math::max);
+    }
+
+    // builds the ID straight into a char array - no String.format, no StringBuilder
+    String format(long sequence) {
+        int seqLen = Math.max(width, digitCount(sequence));
+        int nodeLen = nodeId < 0 ? 0 : Math.max(NODE_WIDTH, digitCount(nodeId)) + 1;
+        char[] buf = new char[prefix.length() + nodeLen + seqLen];
+
+        prefix.getChars(0, prefix.length(), buf, 0);
+        if (nodeId >= 0) {
+            writePadded(buf, prefix.length(), nodeLen - 1, nodeId);
+            buf[prefix.length() + nodeLen - 1] = '-';
+        }
+        writePadded(buf, prefix.length() + nodeLen, seqLen, sequence);
+        return new String(buf);
+    }
+
+    // writes value right-aligned into buf[offset, offset + len), left-filled with zeros
+    private static void writePadded(char[] buf, int offset, int len, long value) {
+        int pos = offset + len;
+        do {
+            buf[--pos] = (char) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        while (pos > offset) {
+            buf[--pos] = '0';
+        }
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    @Override
+    public String toString() {
+        return "SequentialIdGenerator{" +
+               "next=" + format(counter.get() + 1) +
+               '}';
+    }
+}
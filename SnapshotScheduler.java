@@ -0,0 +1,103 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// SnapshotScheduler - writes a GardenSnapshot of a journaled system every
+// so often, so that startup only has to replay the journal written since
+// the last one. Each snapshot records the durable journal offset read (after
+// a sync) just before it was taken. Given a mapped file as well, each run also writes a
+// MappedSnapshot of the same state there, for reporting processes to map
+// read-only. Runs on a daemon "garden-snapshot" thread, so the system has
+// to be in concurrent mode.
+public class SnapshotScheduler {
+    private final GardenSystem system;
+    private final Path file;
+    private final Path mappedFile;   // null = no mapped copy
+    private final long periodMillis;
+    private final ScheduledExecutorService timer;
+    private long snapshotsTaken;
+    private long lastJournalOffset;
+
+    public SnapshotScheduler(GardenSystem system, Path file, Path mappedFile, long periodMillis) {
+        if (system == null || file == null) {
+            throw new IllegalArgumentException("System and file cannot be null");
+        }
+        if (system.getJournal() == null) {
+            throw new IllegalArgumentException("Snapshots need a system with a journal attached");
+        }
+        if (!system.isConcurrent()) {
+            throw new IllegalArgumentException("Periodic snapshots need a GardenSystem in concurrent mode");
+        }
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        this.system = system;
+        this.file = file;
+        this.mappedFile = mappedFile;
+        this.periodMillis = periodMillis;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "garden-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SnapshotScheduler(GardenSystem system, Path file, long periodMillis) {
+        this(system, file, null, periodMillis);
+    }
+
+    public void start() {
+        timer.scheduleWithFixedDelay(this::runScheduled, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        timer.shutdown();
+        try {
+            timer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Path getMappedFile() {
+        return mappedFile;
+    }
+
+    public synchronized long getSnapshotsTaken() {
+        return snapshotsTaken;
+    }
+
+    // journal offset the latest snapshot is current up to
+    public synchronized long getLastJournalOffset() {
+        return lastJournalOffset;
+    }
+
+    // takes a snapshot now. The offset is the durable one, after a sync, so
+    // a snapshot written just before a crash never points past the end of
+    // the journal that survives it.
+    public synchronized void snapshotNow() throws IOException {
+        GardenJournal journal = system.getJournal();
+        journal.sync();
+        long offset = journal.getDurableOffset();
+        GardenSnapshot.write(file, system, offset);
+        if (mappedFile != null) {
+            MappedSnapshot.write(mappedFile, system, offset);
+        }
+        lastJournalOffset = offset;
+        snapshotsTaken++;
+    }
+
+    private void runScheduled() {
+        try {
+            snapshotNow();
+        } catch (IOException e) {
+            System.out.println("Error: Snapshot failed - " + e.getMessage());
+        }
+    }
+}
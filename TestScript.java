@@ -1,9 +1,26 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Test script that checks if each method of all classes works correctly.
@@ -21,11 +38,22 @@ public class TestScript {
         
         testDateRange();
         testCrop();
+        testCropCatalog();
         testReservationStatus();
         testGardener();
         testGardenPlot();
         testReservation();
         testGardenSystem();
+        testSequentialIdGenerator();
+        testGardenHttpServer();
+        testAsyncGardenSystem();
+        testGardenCommandLoop();
+        testBookingIntake();
+        testGardenJournal();
+        testGardenSnapshot();
+        testMappedSnapshot();
+        testReservationCodec();
+        testGardenCsv();
         
         // Print summary
         System.out.println("\n╔══════════════════════════════════════════════════════════╗");
@@ -115,6 +143,12 @@ public class TestScript {
         test("isCurrentlyActive() - active range", activeRange.isCurrentlyActive());
         test("isCurrentlyActive() - future range", !futureRange.isCurrentlyActive());
         
+        // as-of variants
+        long todayDay = today.toEpochDay();
+        test("isInPastAsOf()", pastRange.isInPastAsOf(todayDay) && !pastRange.isInPastAsOf(todayDay - 8));
+        test("isInFutureAsOf()", futureRange.isInFutureAsOf(todayDay) && !futureRange.isInFutureAsOf(todayDay + 1));
+        test("isActiveOn()", activeRange.isActiveOn(todayDay) && !activeRange.isActiveOn(todayDay + 2));
+        
         // equals() and hashCode()
         DateRange same = new DateRange(today, nextWeek);
         DateRange different = new DateRange(today, tomorrow);
@@ -125,6 +159,25 @@ public class TestScript {
         // toString()
         test("toString() - returns string", range.toString() != null && !range.toString().isEmpty());
         
+        // packed form
+        long packed = range.getPacked();
+        test("getPacked() - start day", PackedDateRange.start(packed) == today.toEpochDay());
+        test("getPacked() - end day", PackedDateRange.end(packed) == nextWeek.toEpochDay());
+        test("fromPacked() - round trip", DateRange.fromPacked(packed).equals(range));
+        DateRange oldRange = new DateRange(LocalDate.of(1900, 1, 1), LocalDate.of(1969, 12, 31));
+        test("fromPacked() - dates before 1970", 
+             DateRange.fromPacked(oldRange.getPacked()).getStartDate().equals(LocalDate.of(1900, 1, 1)));
+        test("PackedDateRange.overlaps()", PackedDateRange.overlaps(packed, overlapping.getPacked()));
+        test("PackedDateRange.overlaps() - disjoint", !PackedDateRange.overlaps(packed, nonOverlapping.getPacked()));
+        test("PackedDateRange.contains()", PackedDateRange.contains(packed, inner.getPacked()));
+        test("PackedDateRange.length()", PackedDateRange.length(sevenDays.getPacked()) == 7);
+        try {
+            DateRange.fromPacked(PackedDateRange.pack(10, 5));
+            test("fromPacked() - rejects start after end", false);
+        } catch (IllegalArgumentException e) {
+            test("fromPacked() - rejects start after end", true);
+        }
+        
         System.out.println();
     }
     
@@ -202,6 +255,39 @@ public class TestScript {
         System.out.println();
     }
     
+    // CROPCATALOG TESTS
+    
+    private static void testCropCatalog() {
+        System.out.println("─────────────────────────────────────────────────────────────");
+        System.out.println("Testing CropCatalog class");
+        System.out.println("─────────────────────────────────────────────────────────────");
+        
+        CropCatalog catalog = CropCatalog.shared();
+        test("shared() - single instance", catalog == CropCatalog.shared());
+        test("normalize()", CropCatalog.normalize("  Sweet Corn ").equals("sweet corn"));
+        
+        Crop squash = new Crop("Squash", 50);
+        test("ordinalOf() - same ordinal as crop", catalog.ordinalOf("SQUASH") == squash.getOrdinal());
+        test("findOrdinal() - known name", catalog.findOrdinal(" squash") == squash.getOrdinal());
+        test("findOrdinal() - unknown name", catalog.findOrdinal("no-such-crop-xyz") == -1);
+        test("keyOf()", catalog.keyOf(squash.getOrdinal()).equals("squash"));
+        test("Crop.getKey()", squash.getKey().equals("squash"));
+        
+        Crop other = new Crop("Kale");
+        test("ordinals are distinct", other.getOrdinal() != squash.getOrdinal());
+        test("ordinals are dense", catalog.size() > Math.max(other.getOrdinal(), squash.getOrdinal()));
+        
+        test("get() - nothing interned yet", catalog.get("squash") == null);
+        Crop canonical = catalog.intern(squash);
+        test("intern() - first instance wins", canonical == squash);
+        test("intern() - later instance maps to first", catalog.intern(new Crop("squash")) == squash);
+        test("get(name)", catalog.get("Squash") == squash);
+        test("get(ordinal)", catalog.get(squash.getOrdinal()) == squash);
+        test("getCrops() - contains interned crop", catalog.getCrops().contains(squash));
+        
+        System.out.println();
+    }
+    
     //RESERVATIONSTATUS TESTS
     
     private static void testReservationStatus() {
@@ -430,6 +516,30 @@ public class TestScript {
         test("getActiveReservations()", fullPlot.getActiveReservations().size() == 1);
         test("getConflictingReservations()", fullPlot.getConflictingReservations(range1).size() == 1);
         
+        // confirmed index keeps the plot from being double-booked
+        Reservation clash = new Reservation("R002", fullPlot, gardener, 
+                                            new DateRange(today.plusDays(10), today.plusDays(40)));
+        fullPlot.addReservation(clash);
+        try {
+            clash.confirm();
+            test("confirm() - overlapping confirm on same plot rejected", false);
+        } catch (IllegalStateException e) {
+            test("confirm() - overlapping confirm on same plot rejected", !clash.isConfirmed());
+        }
+        clash.cancel();
+        
+        Reservation later = new Reservation("R003", fullPlot, gardener, nonOverlapping);
+        fullPlot.addReservation(later);
+        later.confirm();
+        DateRange spanning = new DateRange(today, today.plusDays(90));
+        test("getConflictingReservations() - ordered by start", 
+             fullPlot.getConflictingReservations(spanning).size() == 2 &&
+             fullPlot.getConflictingReservations(spanning).get(1).equals(later));
+        later.cancel();
+        test("isAvailable() - cancelled reservation frees dates", fullPlot.isAvailable(nonOverlapping));
+        fullPlot.removeReservation(clash);
+        fullPlot.removeReservation(later);
+        
         // assign() and release()
         fullPlot.assign(gardener);
         test("assign()", fullPlot.getCurrentGardener() != null);
@@ -522,7 +632,17 @@ public class TestScript {
         
         fullRes.clearPlantingPlan();
         test("clearPlantingPlan()", fullRes.getPlantingPlan().isEmpty());
-        
+
+        // Reservations without a plan share an empty one until a crop is added
+        Reservation unplanned = new Reservation("R007", plot, gardener, range);
+        Reservation otherUnplanned = new Reservation("R008", plot, gardener, range);
+        unplanned.addCrop(carrot);
+        test("addCrop() - to an empty plan", unplanned.getPlantingPlan().size() == 1 &&
+             otherUnplanned.getPlantingPlan().isEmpty());
+        unplanned.addCrop(carrot);
+        test("addCrop() - no duplicates", unplanned.getPlantingPlan().size() == 1);
+
+
         // Status queries (on REQUESTED)
         test("isActive() - REQUESTED", fullRes.isActive());
         test("isConfirmed() - not yet", !fullRes.isConfirmed());
@@ -575,6 +695,21 @@ public class TestScript {
                                                       Arrays.asList(new Crop("Pepper")));
         test("validateCrops() - disallowed crop", !invalidCropRes.validateCrops());
         
+        // restrictions spanning more than one 64-crop word
+        GardenPlot bigPlot = new GardenPlot("P003", "Many Crops");
+        for (int i = 0; i < 70; i++) {
+            bigPlot.addAllowedCrop("Test Crop " + i);
+        }
+        Reservation widePlan = new Reservation("R015", bigPlot, gardener, range,
+                                               Arrays.asList(new Crop("test crop 3"), new Crop("TEST CROP 69")));
+        test("validateCrops() - many allowed crops", widePlan.validateCrops());
+        widePlan.addCrop(new Crop("Pepper"));
+        test("validateCrops() - one disallowed crop in plan", !widePlan.validateCrops());
+        widePlan.removeCrop(new Crop("pepper"));
+        test("validateCrops() - after removing disallowed crop", widePlan.validateCrops());
+        bigPlot.removeAllowedCrop("Test Crop 69");
+        test("validateCrops() - after restriction removed", !widePlan.validateCrops());
+        
         DateRange longRange = new DateRange(today, today.plusDays(100));
         Reservation longRes = new Reservation("R011", plot, gardener, longRange, 
                                                Arrays.asList(new Crop("Tomato", 60)));
@@ -666,6 +801,20 @@ public class TestScript {
         List<GardenPlot> availableForCrop = system.findAvailablePlots(range, tomato);
         test("findAvailablePlots(range, crop) - with restrictions", availableForCrop.size() == 2);
         
+        Crop pepper = new Crop("Pepper");
+        List<GardenPlot> availableForPepper = system.findAvailablePlots(range, pepper);
+        test("findAvailablePlots(range, crop) - skips plots that don't allow it", 
+             availableForPepper.size() == 1 && availableForPepper.get(0).equals(plot2));
+        plot2.addAllowedCrop("Pepper");
+        plot1.addAllowedCrop("Pepper");
+        availableForPepper = system.findAvailablePlots(range, pepper);
+        test("findAvailablePlots(range, crop) - keeps plot order", 
+             availableForPepper.size() == 2 && availableForPepper.get(0).equals(plot1));
+        plot1.removeAllowedCrop("Pepper");
+        plot2.clearCropRestrictions();
+        test("findAvailablePlots(range, crop) - follows restriction changes", 
+             system.findAvailablePlots(range, pepper).size() == 1);
+        
         test("isPlotAvailable() - available", system.isPlotAvailable("P001", range));
         
         // Reservation creation
@@ -710,6 +859,8 @@ public class TestScript {
         // Cancel reservation
         test("cancelReservation() - success", system.cancelReservation(res2.getReservationID()));
         test("cancelReservation() - status changed", res2.getStatus() == ReservationStatus.CANCELLED);
+        test("cancelReservation() - gardener active count drops", gardener2.getActiveReservationCount() == 0);
+        test("cancelReservation() - plot has no active reservations", !plot2.hasActiveReservations());
         
         // Complete reservation
         test("completeReservation() - success", system.completeReservation(res1.getReservationID()));
@@ -718,6 +869,7 @@ public class TestScript {
         // Active reservations
         List<Reservation> activeRes = system.getActiveReservations();
         test("getActiveReservations() - only active returned", activeRes.size() == 1); // bookedRes
+        test("getActiveReservationCount()", system.getActiveReservationCount() == 1);
         
         // Reservations for gardener
         List<Reservation> gardener1Res = system.getReservationsForGardener("G001");
@@ -735,6 +887,9 @@ public class TestScript {
         
         // Remove plot with active reservations should fail
         test("removePlot() - with active reservations fails", !system.removePlot("P001"));
+        test("removePlot() - without active reservations", system.removePlot("P002"));
+        test("findPlotById() - removed plot not found", system.findPlotById("P002") == null);
+        test("addPlot() - removed plot can be re-added", system.addPlot(plot2));
         
         // Complete the remaining reservation to test plot removal
         system.completeReservation(bookedRes.getReservationID());
@@ -753,9 +908,1260 @@ public class TestScript {
         // toString()
         test("toString() - returns string", system.toString() != null);
         
+        // fixed clock - "today" comes from the clock, not the machine
+        LocalDate fixedDay = LocalDate.of(2030, 6, 15);
+        Clock fixed = Clock.fixed(fixedDay.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+        GardenSystem clocked = new GardenSystem(fixed);
+        GardenPlot clockedPlot = new GardenPlot("P010", "Clocked");
+        clocked.addPlot(clockedPlot);
+        clocked.registerGardener(new Gardener("G010", "Carol"));
+        clocked.bookPlot("P010", "G010", new DateRange(fixedDay.minusDays(1), fixedDay.plusDays(1)), null);
+        test("today() - uses injected clock", clocked.today().equals(fixedDay));
+        test("isOccupiedOn() - booked day", clockedPlot.isOccupiedOn(fixedDay.toEpochDay()));
+        test("generateAvailabilityReport() - uses injected clock", 
+             clocked.generateAvailabilityReport().contains("OCCUPIED"));
+        Reservation clockedBooking = clocked.getReservationsForPlot("P010").get(0);
+        test("toDetailedString() - plot uses the system clock",
+             clockedPlot.toDetailedString().contains("Currently Occupied: Yes") &&
+             clockedPlot.toString().contains("occupied=true") && clockedPlot.isCurrentlyOccupied());
+        test("toDetailedString(LocalDate) - given day",
+             clockedPlot.toDetailedString(fixedDay.plusDays(5)).contains("Currently Occupied: No"));
+        test("isCurrentlyActive() - reservation uses the system clock",
+             clockedBooking.isCurrentlyActive() && !clockedBooking.isPeriodEnded());
+        
+        // free-plot heatmap
+        clocked.addPlot(new GardenPlot("P011", "Second"));
+        DateRange week = new DateRange(fixedDay.minusDays(3), fixedDay.plusDays(3));
+        int[] free = clocked.getFreePlotCounts(week);
+        test("getFreePlotCounts() - one entry per day", free.length == 7);
+        test("getFreePlotCounts() - booked days", free[2] == 1 && free[3] == 1 && free[4] == 1);
+        test("getFreePlotCounts() - free days", free[0] == 2 && free[6] == 2);
+        test("findDaysWithFreePlots() - all plots free", 
+             clocked.findDaysWithFreePlots(week, 2).size() == 4);
+        test("findDaysWithFreePlots() - at least one free", 
+             clocked.findDaysWithFreePlots(week, 1).size() == 7);
+        Reservation second = clocked.bookPlot("P011", "G010", new DateRange(fixedDay, fixedDay), null);
+        test("getFreePlotCounts() - after second booking", clocked.getFreePlotCounts(week)[3] == 0);
+        clocked.cancelReservation(second.getReservationID());
+        test("getFreePlotCounts() - after cancel", clocked.getFreePlotCounts(week)[3] == 1);
+        test("createReservation() - rejects dates past the bookable years",
+             clocked.createReservation("P011", "G010", new DateRange(fixedDay, LocalDate.of(900000, 1, 1))) == null);
+        try {
+            new Reservation("RX", new GardenPlot("PX"), new Gardener("GX"),
+                            new DateRange(LocalDate.of(1850, 1, 1), fixedDay));
+            test("Reservation() - rejects dates before the bookable years", false);
+        } catch (IllegalArgumentException e) {
+            test("Reservation() - rejects dates before the bookable years", true);
+        }
+        test("getFreePlotCounts() - unaffected by rejected bookings", clocked.getFreePlotCounts(week)[3] == 1);
+
+        // a confirm the system refuses (closed journal) leaves the plot free
+        try {
+            Path rollbackFile = Files.createTempFile("garden-rollback", ".journal");
+            Files.delete(rollbackFile);
+            GardenSystem refusing = new GardenSystem(Clock.fixed(fixedDay.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC));
+            refusing.addPlot(new GardenPlot("P1"));
+            refusing.registerGardener(new Gardener("G1"));
+            Reservation pending = refusing.createReservation("P1", "G1", new DateRange(fixedDay, fixedDay.plusDays(5)));
+            GardenJournal closedJournal = GardenJournal.open(rollbackFile);
+            closedJournal.close();
+            refusing.setJournal(closedJournal);
+            test("confirmReservation() - refused by the system", !refusing.confirmReservation(pending.getReservationID()));
+            test("confirmReservation() - refused confirm rolled back on the plot",
+                 refusing.isPlotAvailable("P1", new DateRange(fixedDay, fixedDay)) &&
+                 pending.getStatus() == ReservationStatus.REQUESTED &&
+                 refusing.getFreePlotCounts(new DateRange(fixedDay, fixedDay))[0] == 1);
+            refusing.setJournal(null);
+            test("cancelReservation() - after a refused confirm",
+                 refusing.cancelReservation(pending.getReservationID()) && refusing.getActiveReservationCount() == 0);
+            Files.delete(rollbackFile);
+        } catch (IOException e) {
+            test("confirm rollback - I/O error: " + e.getMessage(), false);
+        }
+
+        // earliest free window
+        clocked.bookPlot("P011", "G010", new DateRange(fixedDay, fixedDay.plusDays(2)), null);
+        List<PlotWindow> windows = clocked.findEarliestWindow(3, fixedDay.minusDays(2));
+        test("findEarliestWindow() - one per plot", windows.size() == 2);
+        test("findEarliestWindow() - soonest first", 
+             windows.get(0).getPlot().equals(clockedPlot) &&
+             windows.get(0).getDateRange().getStartDate().equals(fixedDay.plusDays(2)));
+        test("findEarliestWindow() - jumps past bookings", 
+             windows.get(1).getDateRange().getStartDate().equals(fixedDay.plusDays(3)));
+        test("findEarliestWindow() - fits before first booking", 
+             clocked.findEarliestWindow(2, fixedDay.minusDays(3)).get(0).getDateRange()
+                    .getStartDate().equals(fixedDay.minusDays(3)));
+        clockedPlot.addAllowedCrop("Basil");
+        test("findEarliestWindow() - crop filter", 
+             clocked.findEarliestWindow(3, fixedDay, new Crop("Tomato")).size() == 1);
+        test("findEarliestWindow() - invalid length", clocked.findEarliestWindow(0, fixedDay).isEmpty());
+        GardenSystem edge = new GardenSystem(fixed);
+        edge.addPlot(new GardenPlot("E001"));
+        edge.addPlot(new GardenPlot("E002"));
+        edge.registerGardener(new Gardener("G011", "Edda"));
+        LocalDate lastYear = LocalDate.of(2199, 12, 20);
+        edge.bookPlot("E001", "G011", new DateRange(lastYear.plusDays(5), lastYear.plusDays(11)), null);
+        List<PlotWindow> edgeWindows = edge.findEarliestWindow(10, lastYear);
+        test("findEarliestWindow() - no window past the bookable years", edgeWindows.size() == 1 &&
+             edgeWindows.get(0).getPlot().getPlotID().equals("E002") &&
+             edgeWindows.get(0).getDateRange().isBookable());
+        test("findEarliestWindow() - too close to the end", edge.findEarliestWindow(5, lastYear.plusDays(8)).isEmpty() &&
+             edge.findPlotById("E002").findEarliestWindow(5, lastYear.plusDays(8)) == null);
+        test("findEarliestWindow() - starts no earlier than the bookable years",
+             edge.findPlotById("E002").findEarliestWindow(1, LocalDate.of(1800, 1, 1)).getStartDate()
+                 .equals(LocalDate.of(1900, 1, 1)));
+        
+        // batch booking - all or nothing
+        GardenSystem group = new GardenSystem(fixed);
+        for (int i = 1; i <= 24; i++) {
+            group.addPlot(new GardenPlot(String.format("B%03d", i)));
+        }
+        group.registerGardener(new Gardener("G020", "Garden Club"));
+        group.registerGardener(new Gardener("G021", "Dana"));
+        DateRange season = new DateRange(fixedDay, fixedDay.plusDays(60));
+        group.bookPlot("B003", "G021", new DateRange(fixedDay.plusDays(30), fixedDay.plusDays(40)), null);
+        
+        List<Reservation> failed = group.bookPlots(Arrays.asList("B001", "B002", "B003"), "G020", season, null);
+        test("bookPlots() - one conflict fails the batch", failed == null);
+        test("bookPlots() - failed batch books nothing", 
+             group.getReservations().size() == 1 && group.isPlotAvailable("B001", season));
+        test("bookPlots() - duplicate plot fails", 
+             group.bookPlots(Arrays.asList("B001", "B001"), "G020", season, null) == null);
+        
+        List<Reservation> batch = group.bookPlots(Arrays.asList("B001", "B002"), "G020", season, null);
+        test("bookPlots() - books every plot", batch != null && batch.size() == 2);
+        test("bookPlots() - reservations confirmed", batch.get(0).isConfirmed() && batch.get(1).isConfirmed());
+        test("bookPlots() - plots blocked", !group.isPlotAvailable("B002", season));
+        test("bookPlots() - gardener counts", group.findGardenerById("G020").getActiveReservationCount() == 2);
+        test("bookPlots() - findable by ID", group.findReservationById(batch.get(1).getReservationID()) != null);
+        test("bookPlots() - occupancy updated", group.getFreePlotCounts(season)[0] == 22);
+        test("bookPlots() - empty crop in plan rejected", 
+             group.bookPlots(Arrays.asList("B004"), "G020", season, Arrays.asList((Crop) null)) == null);
+        List<String> club = new ArrayList<>();
+        for (int i = 5; i <= 22; i++) {
+            club.add(String.format("B%03d", i));
+        }
+        List<Reservation> large = group.bookPlots(club, "G020", season, null);
+        test("bookPlots() - group beyond the single quota", large != null && large.size() == 18 &&
+             group.findGardenerById("G020").getActiveReservationCount() == 20);
+        test("bookPlots() - one plot keeps the normal quota",
+             group.bookPlots(Arrays.asList("B024"), "G021", season, null) != null &&
+             group.bookPlots(Arrays.asList("B003"), "G021", new DateRange(fixedDay.plusDays(200), fixedDay.plusDays(201)), null) != null &&
+             group.bookPlots(Arrays.asList("B003"), "G021", new DateRange(fixedDay.plusDays(300), fixedDay.plusDays(301)), null) == null);
+        test("bookPlots() - group limit enforced", 
+             group.bookPlots(Arrays.asList("B023", "B004"), "G020", season, null) == null &&
+             group.isPlotAvailable("B023", season));
+        test("bookPlots() - cancel one of the batch", group.cancelReservation(batch.get(0).getReservationID()) &&
+             group.isPlotAvailable("B001", season));
+        
+        // bulk loading
+        GardenSystem loaded = new GardenSystem(fixed);
+        GardenPlot lp1 = new GardenPlot("L001");
+        GardenPlot lp2 = new GardenPlot("L002");
+        lp2.addAllowedCrop("Mint");
+        Gardener lg = new Gardener("G030", "Eve");
+        DateRange past = new DateRange(fixedDay.minusDays(100), fixedDay.minusDays(50));
+        List<Reservation> history = Arrays.asList(
+            new Reservation("R0007", lp1, lg, past, null, ReservationStatus.COMPLETED),
+            new Reservation("R0012", lp1, lg, season, null, ReservationStatus.CONFIRMED),
+            new Reservation("R0003", lp2, lg, season, null, ReservationStatus.REQUESTED));
+        loaded.bulkLoad(Arrays.asList(lp1, lp2).stream(), Arrays.asList(lg).stream(), history.stream());
+        test("bulkLoad() - plots in order", loaded.getPlots().size() == 2 && loaded.getPlots().get(0).equals(lp1));
+        test("bulkLoad() - lookups built", loaded.findReservationById("R0012") != null && 
+             loaded.findGardenerById("G030") == lg && loaded.findPlotById("L002") == lp2);
+        test("bulkLoad() - availability built", !loaded.isPlotAvailable("L001", season) &&
+             loaded.isPlotAvailable("L001", past));
+        test("bulkLoad() - partitions built", loaded.getActiveReservationCount() == 2 && 
+             lg.getActiveReservationCount() == 2 && lp1.getActiveReservations().size() == 1);
+        test("bulkLoad() - crop index built", loaded.findAvailablePlots(season, new Crop("Mint")).size() == 1);
+        test("bulkLoad() - occupancy built", loaded.getFreePlotCounts(season)[0] == 1);
+        loaded.registerGardener(new Gardener("G031"));
+        Reservation afterLoad = loaded.createReservation("L002", "G031", past);
+        test("bulkLoad() - ID counter moved past loaded IDs", afterLoad.getReservationID().equals("R0013"));
+        try {
+            loaded.bulkLoad(Arrays.asList(new GardenPlot("L001")).stream(), null, null);
+            test("bulkLoad() - duplicate ID rejected", false);
+        } catch (IllegalArgumentException e) {
+            test("bulkLoad() - duplicate ID rejected", loaded.getPlots().size() == 2);
+        }
+        test("bulkLoad() - confirmed reservation sets current gardener", lp1.getCurrentGardener() == lg &&
+             lp2.getCurrentGardener() == null);
+        // L003 is fine on its own; L001 is double-booked by the second reservation
+        GardenPlot lp3 = new GardenPlot("L003");
+        Gardener lg2 = new Gardener("G032");
+        try {
+            loaded.bulkLoad(Arrays.asList(lp3).stream(), Arrays.asList(lg2).stream(), Arrays.asList(
+                new Reservation("R0020", lp3, lg2, season, null, ReservationStatus.CONFIRMED),
+                new Reservation("R0021", lp1, lg2, new DateRange(fixedDay.plusDays(1), fixedDay.plusDays(2)),
+                                null, ReservationStatus.CONFIRMED)).stream());
+            test("bulkLoad() - double booking rejected", false);
+        } catch (IllegalStateException e) {
+            test("bulkLoad() - double booking rejected before any change",
+                 lp3.isAvailable(season) && lp3.getReservations().isEmpty() && lp1.getReservations().size() == 2 &&
+                 loaded.findPlotById("L003") == null && lg2.getReservations().isEmpty());
+        }
+
+
+        // concurrent mode - racing bookings
+        GardenSystem shared = new GardenSystem(fixed, new SequentialIdGenerator(), true);
+        test("isConcurrent()", shared.isConcurrent() && !system.isConcurrent());
+        shared.addPlot(new GardenPlot("C000"));
+        for (int i = 1; i <= 8; i++) {
+            shared.addPlot(new GardenPlot("C00" + i));
+            shared.registerGardener(new Gardener("G04" + i));
+        }
+        Thread[] racers = new Thread[8];
+        for (int i = 0; i < racers.length; i++) {
+            String gardenerId = "G04" + (i + 1);
+            String ownPlot = "C00" + (i + 1);
+            racers[i] = new Thread(() -> {
+                shared.bookPlot("C000", gardenerId, season, null);
+                shared.bookPlot(ownPlot, gardenerId, season, null);
+            });
+        }
+        for (Thread racer : racers) racer.start();
+        try {
+            for (Thread racer : racers) racer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int confirmedOnShared = 0;
+        for (Reservation res : shared.getReservationsForPlot("C000")) {
+            if (res.isConfirmed()) confirmedOnShared++;
+        }
+        test("concurrent bookPlot() - one winner per plot", confirmedOnShared == 1);
+        test("concurrent bookPlot() - other plots all booked", shared.findAvailablePlots(season).isEmpty());
+        test("concurrent bookPlot() - occupancy consistent", shared.getFreePlotCounts(season)[0] == 0);
+        test("concurrent bookPlot() - unique IDs", 
+             new HashSet<>(shared.getReservations()).size() == shared.getReservations().size());
+        
+        // the history is read lock-free, across chunk boundaries
+        GardenSystem logged = new GardenSystem(fixed, new SequentialIdGenerator(), true);
+        GardenPlot hp = new GardenPlot("H001");
+        Gardener hg = new Gardener("G050", "Hal");
+        List<Reservation> requested = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            requested.add(new Reservation("H" + i, hp, hg, season));
+        }
+        logged.bulkLoad(Arrays.asList(hp).stream(), Arrays.asList(hg).stream(), requested.stream());
+        List<Reservation> loggedHistory = logged.getReservations();
+        test("getReservations() - spans chunks", loggedHistory.size() == 2500 && loggedHistory.equals(requested));
+        test("generatePlantingReport() - totals from the history",
+             logged.generatePlantingReport().contains("Total Reservations: 2500") &&
+             logged.generatePlantingReport().contains("Active Reservations: 2500"));
+        logged.cancelReservation("H2499");
+        test("generatePlantingReport() - after a cancel",
+             logged.generatePlantingReport().contains("Active Reservations: 2499") &&
+             logged.getActiveReservations().size() == 2499 && hp.getActiveReservations().size() == 2499);
+        
+        System.out.println();
+    }
+    
+    // SEQUENTIALIDGENERATOR TESTS
+    
+    private static void testSequentialIdGenerator() {
+        System.out.println("─────────────────────────────────────────────────────────────");
+        System.out.println("Testing SequentialIdGenerator class");
+        System.out.println("─────────────────────────────────────────────────────────────");
+        
+        SequentialIdGenerator ids = new SequentialIdGenerator();
+        test("nextId() - first ID", ids.nextId().equals("R0001"));
+        test("nextId() - second ID", ids.nextId().equals("R0002"));
+        test("currentSequence()", ids.currentSequence() == 2);
+        
+        ids.advanceTo(9998);
+        test("advanceTo() - skips ahead", ids.nextId().equals("R9999"));
+        test("nextId() - grows past pad width", ids.nextId().equals("R10000"));
+        ids.advanceTo(5);
+        test("advanceTo() - never moves backwards", ids.currentSequence() == 10000);
+        
+        SequentialIdGenerator wide = new SequentialIdGenerator("R", 19);
+        wide.advanceTo(Long.MAX_VALUE - 1);
+        test("nextId() - 64-bit range", wide.nextId().equals("R" + Long.MAX_VALUE));
+        try {
+            wide.nextId();
+            test("nextId() - exhausted sequence throws", false);
+        } catch (IllegalStateException e) {
+            test("nextId() - exhausted sequence throws", true);
+        }
+        
+        SequentialIdGenerator node = new SequentialIdGenerator("R", 6, 7);
+        test("nextId() - node mode", node.nextId().equals("R007-000001"));
+        
+        try {
+            new SequentialIdGenerator("R", 0);
+            test("Constructor rejects zero width", false);
+        } catch (IllegalArgumentException e) {
+            test("Constructor rejects zero width", true);
+        }
+        
+        GardenSystem system = new GardenSystem(new SequentialIdGenerator("R", 4, 2));
+        system.addPlot(new GardenPlot("P001"));
+        system.registerGardener(new Gardener("G001"));
+        LocalDate today = LocalDate.now();
+        Reservation res = system.createReservation("P001", "G001", new DateRange(today, today.plusDays(5)));
+        test("GardenSystem uses injected generator", res.getReservationID().equals("R002-0001"));
+        
+        System.out.println();
+    }
+    
+    // GARDENHTTPSERVER TESTS
+    
+    private static void testGardenHttpServer() {
+        System.out.println("─────────────────────────────────────────────────────────────");
+        System.out.println("Testing GardenHttpServer class");
+        System.out.println("─────────────────────────────────────────────────────────────");
+        
+        try {
+            new GardenHttpServer(new GardenSystem(), 0);
+            test("Constructor rejects non-concurrent system", false);
+        } catch (IllegalArgumentException | IOException e) {
+            test("Constructor rejects non-concurrent system", e instanceof IllegalArgumentException);
+        }
+        
+        GardenSystem system = new GardenSystem(Clock.systemUTC(), new SequentialIdGenerator(), true) {
+            @Override
+            public String generateAvailabilityReport() {
+                throw new IllegalStateException("report failed");
+            }
+        };
+        system.addPlot(new GardenPlot("P001", "Sunny Corner"));
+        GardenHttpServer server = null;
+        try {
+            server = new GardenHttpServer(system, 0);
+            server.start();
+            String base = "http://localhost:" + server.getPort();
+            
+            test("GET /plots", httpCall("GET", base + "/plots", null).startsWith("200 [{\"id\":\"P001\""));
+            test("GET /plots/{id} - unknown", httpCall("GET", base + "/plots/P999", null).startsWith("404"));
+            test("POST /gardeners", 
+                 httpCall("POST", base + "/gardeners", "gardenerId=G001&name=Ann").startsWith("201"));
+            String created = httpCall("POST", base + "/reservations",
+                                      "plotId=P001&gardenerId=G001&start=2031-04-01&end=2031-04-30");
+            test("POST /reservations", created.startsWith("201") && created.contains("\"status\":\"REQUESTED\""));
+            test("POST /reservations - bad date", httpCall("POST", base + "/reservations",
+                 "plotId=P001&gardenerId=G001&start=April&end=2031-04-30").startsWith("400"));
+            test("POST /reservations/{id}/confirm", 
+                 httpCall("POST", base + "/reservations/R0001/confirm", "").contains("\"status\":\"CONFIRMED\""));
+            test("GET /plots/available - booked plot left out", 
+                 httpCall("GET", base + "/plots/available?start=2031-04-10&end=2031-04-12", null).equals("200 []"));
+            test("POST /reservations/{id}/cancel", 
+                 httpCall("POST", base + "/reservations/R0001/cancel", "").contains("\"status\":\"CANCELLED\""));
+            test("POST /reservations/{id}/cancel - twice", 
+                 httpCall("POST", base + "/reservations/R0001/cancel", "").startsWith("409"));
+            test("GET /reports/planting", 
+                 httpCall("GET", base + "/reports/planting", null).contains("PLANTING REPORT"));
+            int cropCount = CropCatalog.shared().getCrops().size();
+            test("POST /reservations - unknown crop", httpCall("POST", base + "/reservations",
+                 "plotId=P001&gardenerId=G001&start=2031-05-01&end=2031-05-30&crops=Moonflower").startsWith("400"));
+            test("Unknown crop not interned", CropCatalog.shared().getCrops().size() == cropCount &&
+                 CropCatalog.shared().findOrdinal("Moonflower") < 0);
+            GardenPlot sorrelOnly = new GardenPlot("P002");
+            sorrelOnly.addAllowedCrop("Sorrel");   // an ordinal, but no interned Crop
+            GardenPlot basilOnly = new GardenPlot("P003");
+            basilOnly.addAllowedCrop("Basil");
+            system.addPlot(sorrelOnly);
+            system.addPlot(basilOnly);
+            String sorrelPlots = httpCall("GET", base + "/plots/available?start=2031-07-01&end=2031-07-10&crop=sorrel", null);
+            test("GET /plots/available - crop known only to a plot",
+                 sorrelPlots.contains("\"P002\"") && sorrelPlots.contains("\"P001\"") && !sorrelPlots.contains("\"P003\""));
+            String sorrelBooking = httpCall("POST", base + "/reservations",
+                 "plotId=P002&gardenerId=G001&start=2031-07-01&end=2031-07-10&crops=Sorrel");
+            test("POST /reservations - crop known only to a plot",
+                 sorrelBooking.startsWith("201") && sorrelBooking.contains("\"Sorrel\""));
+            test("Unexpected handler failure - 500",
+                 httpCall("GET", base + "/reports/availability", null).startsWith("500"));
+        } catch (IOException e) {
+            test("HTTP round trip - " + e.getMessage(), false);
+        } finally {
+            if (server != null) {
+                server.stop(0);
+            }
+        }
+        
+        System.out.println();
+    }
+    
+    // ASYNCGARDENSYSTEM TESTS
+    
+    private static void testAsyncGardenSystem() {
+        System.out.println("─────────────────────────────────────────────────────────────");
+        System.out.println("Testing AsyncGardenSystem class");
+        System.out.println("─────────────────────────────────────────────────────────────");
+        
+        try {
+            new AsyncGardenSystem(new GardenSystem());
+            test("Constructor rejects non-concurrent system", false);
+        } catch (IllegalArgumentException e) {
+            test("Constructor rejects non-concurrent system", true);
+        }
+        
+        GardenSystem system = new GardenSystem(Clock.systemUTC(), new SequentialIdGenerator(), true);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AsyncGardenSystem async = new AsyncGardenSystem(system, pool);
+        for (int i = 1; i <= 3; i++) {
+            system.addPlot(new GardenPlot("A00" + i));
+        }
+        system.registerGardener(new Gardener("G001"));
+        system.registerGardener(new Gardener("G002"));
+        LocalDate start = LocalDate.of(2031, 5, 1);
+        DateRange range = new DateRange(start, start.plusDays(30));
+        
+        Reservation created = async.createReservation("A001", "G001", range).join();
+        test("createReservation()", created != null && created.getStatus() == ReservationStatus.REQUESTED);
+        test("confirmReservation()", async.confirmReservation(created.getReservationID()).join());
+        test("isPlotAvailable()", !async.isPlotAvailable("A001", range).join());
+        test("findAvailablePlots()", async.findAvailablePlots(range).join().size() == 2);
+        test("findAvailableAmong() - keeps given order", 
+             async.findAvailableAmong(Arrays.asList("A003", "A001", "A002"), range).join()
+                  .equals(Arrays.asList("A003", "A002")));
+        Reservation first = async.bookFirstAvailable(Arrays.asList("A001", "A002", "A003"), "G002", range, null).join();
+        test("bookFirstAvailable() - skips booked plot", 
+             first != null && first.getPlot().getPlotID().equals("A002") && first.isConfirmed());
+        test("bookFirstAvailable() - none free", 
+             async.bookFirstAvailable(Arrays.asList("A001", "A002"), "G002", range, null).join() == null);
+        test("cancelReservation()", async.cancelReservation(first.getReservationID()).join());
+        test("generatePlantingReport()", async.generatePlantingReport().join().contains("PLANTING REPORT"));
+        pool.shutdown();
+        
+        System.out.println();
+    }
+    
+    // GARDENCOMMANDLOOP TESTS
+    
+    private static void testGardenCommandLoop() {
+        System.out.println("─────────────────────────────────────────────────────────────");
+        System.out.println("Testing GardenCommandLoop class");
+        System.out.println("─────────────────────────────────────────────────────────────");
+        
+        GardenSystem system = new GardenSystem(Clock.systemUTC());
+        GardenCommandLoop loop = new GardenCommandLoop(system, 6);
+        test("Constructor - capacity rounded to power of two", loop.getCapacity() == 8);
+        test("submit() before start fails", 
+             loop.submit(GardenSystem::getActiveReservationCount).isCompletedExceptionally());
+        loop.start();
+        
+        test("addPlot()", loop.addPlot(new GardenPlot("W001")).join());
+        test("addPlot() - duplicate", !loop.addPlot(new GardenPlot("W001")).join());
+        for (int i = 1; i <= 41; i++) {
+            String gardenerId = "G" + i;
+            loop.submit(s -> s.registerGardener(new Gardener(gardenerId)));
+        }
+        LocalDate start = LocalDate.of(2031, 6, 1);
+        Reservation res = loop.createReservation("W001", "G1", new DateRange(start, start.plusDays(9)), null).join();
+        test("createReservation()", res != null && res.getPlot().getPlotID().equals("W001"));
+        test("confirmReservation()", loop.confirmReservation(res.getReservationID()).join());
+        
+        // many producers, one day each, ring much smaller than the traffic
+        Thread[] producers = new Thread[4];
+        List<CompletableFuture<Reservation>> results = new java.util.concurrent.CopyOnWriteArrayList<>();
+        for (int t = 0; t < producers.length; t++) {
+            int offset = t;
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 10; i++) {
+                    LocalDate day = start.plusDays(20 + offset * 10 + i);
+                    String gardenerId = "G" + (2 + offset * 10 + i);
+                    results.add(loop.createReservation("W001", gardenerId, new DateRange(day, day), null));
+                }
+            });
+        }
+        for (Thread producer : producers) producer.start();
+        try {
+            for (Thread producer : producers) producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean allCreated = true;
+        for (CompletableFuture<Reservation> result : results) {
+            allCreated &= result.join() != null;
+        }
+        test("submit() from many threads - all applied", allCreated && results.size() == 40);
+        test("submit() - query on writer thread", 
+             loop.submit(s -> s.getReservations().size()).join() == 41);
+        CompletableFuture<Object> failing = loop.submit(s -> { throw new IllegalStateException("boom"); });
+        test("submit() - exception completes future", failing.handle((v, e) -> e != null).join());
+        test("cancelReservation()", loop.cancelReservation(res.getReservationID()).join());
+        test("removePlot()", loop.removePlot("W001").join() == false);
+        
+        // one batch - index updates queue up, reads in the batch see them
+        java.util.concurrent.CountDownLatch held = new java.util.concurrent.CountDownLatch(1);
+        loop.submit(s -> {
+            try {
+                held.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        DateRange later = new DateRange(start.plusDays(100), start.plusDays(109));
+        CompletableFuture<Reservation> queued = loop.createReservation("W001", "G41", later, null);
+        CompletableFuture<Integer> freeInBatch = loop.submit(s -> {
+            List<Reservation> all = s.getReservations();
+            s.confirmReservation(all.get(all.size() - 1).getReservationID());
+            return s.getFreePlotCounts(later)[0];
+        });
+        CompletableFuture<Boolean> cancelled = loop.submit(s -> {
+            List<Reservation> all = s.getReservations();
+            return s.cancelReservation(all.get(all.size() - 1).getReservationID());
+        });
+        held.countDown();
+        test("batch - commands see earlier ones", queued.join() != null && freeInBatch.join() == 0 && cancelled.join());
+        test("batch - indexes applied once consistent",
+             system.getFreePlotCounts(later)[0] == 1 && system.getReservations().size() == 42 &&
+             system.getActiveReservationCount() == 40 && !queued.join().isActive());
+        
+        loop.stop();
+        test("stop() - later submissions fail", loop.cancelReservation("R0001").isCompletedExceptionally());
+        
+        System.out.println();
+    }
+    
+    // BOOKINGINTAKE TESTS
+    
+    private static void testBookingIntake() {
+        System.out.println("─────────────────────────────────────────────────────────────");
+        System.out.println("Testing BookingIntake class");
+        System.out.println("─────────────────────────────────────────────────────────────");
+        
+        LocalDate day1 = LocalDate.of(2031, 3, 1);
+        try {
+            new BookingRequest("K001", "G1", new DateRange(day1, day1), Arrays.asList(new Crop("Kale"), null));
+            test("BookingRequest - empty crop rejected", false);
+        } catch (IllegalArgumentException e) {
+            test("BookingRequest - empty crop rejected", true);
+        }
+        List<BookingRequest> burst = Arrays.asList(
+            new BookingRequest("K001", "G1", new DateRange(day1.plusDays(4), day1.plusDays(29))),  // 26 days
+            new BookingRequest("K001", "G2", new DateRange(day1, day1.plusDays(9))),               // 10 days
+            new BookingRequest("K001", "G3", new DateRange(day1.plusDays(10), day1.plusDays(19))),
+            new BookingRequest("K001", "G4", new DateRange(day1.plusDays(20), day1.plusDays(29))),
+            new BookingRequest("K999", "G1", new DateRange(day1, day1)));                          // no such plot
+        
+        BookingIntake firstCome = new BookingIntake(intakeSystem(), ConflictPolicy.FIRST_COME, 1);
+        List<CompletableFuture<Reservation>> futures = new ArrayList<>();
+        for (BookingRequest request : burst) {
+            futures.add(firstCome.submit(request));
+        }
+        test("submit() - waits for flush", firstCome.getPendingCount() == 5 && !futures.get(0).isDone());
+        List<Reservation> fc = firstCome.flush();
+        test("FIRST_COME - earliest request wins", fc.get(0) != null && fc.get(0).isConfirmed() && 
+             fc.get(1) == null && fc.get(2) == null && fc.get(3) == null);
+        test("flush() - invalid request gets null", fc.get(4) == null);
+        test("flush() - futures completed", futures.get(0).join() == fc.get(0) && futures.get(1).join() == null);
+        test("flush() - batch counted", firstCome.getBatchesBooked() == 1 && firstCome.getPendingCount() == 0);
+        
+        BookingIntake maxUse = new BookingIntake(intakeSystem(), ConflictPolicy.MAX_UTILIZATION, 1);
+        burst.forEach(maxUse::submit);
+        List<Reservation> mu = maxUse.flush();
+        test("MAX_UTILIZATION - most days booked", mu.get(0) == null && mu.get(1) != null && 
+             mu.get(2) != null && mu.get(3) != null);
+        
+        List<BookingRequest> sameDays = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            sameDays.add(new BookingRequest("K001", "G" + i, new DateRange(day1, day1.plusDays(5))));
+        }
+        String winner = lotteryWinner(sameDays, 42);
+        Collections.reverse(sameDays);
+        test("LOTTERY - one winner, independent of arrival order", 
+             winner != null && winner.equals(lotteryWinner(sameDays, 42)));
+        
+        GardenSystem quotaSystem = intakeSystem();
+        BookingIntake quota = new BookingIntake(quotaSystem, ConflictPolicy.MAX_UTILIZATION, 1);
+        for (int i = 0; i < 4; i++) {
+            quota.submit(new BookingRequest("K00" + (i + 1), "G1", new DateRange(day1, day1.plusDays(5))));
+        }
+        long won = quota.flush().stream().filter(r -> r != null).count();
+        test("flush() - gardener quota enforced across batch", won == 3 && 
+             quotaSystem.findGardenerById("G1").getActiveReservationCount() == 3);
+        test("flush() - index updated once for winners", quotaSystem.getFreePlotCounts(
+             new DateRange(day1, day1))[0] == 1 && quotaSystem.getActiveReservationCount() == 3);
+        
+        GardenSystem shared = new GardenSystem(Clock.systemUTC(), new SequentialIdGenerator(), true);
+        shared.addPlot(new GardenPlot("K001"));
+        shared.registerGardener(new Gardener("G1"));
+        BookingIntake timed = new BookingIntake(shared, ConflictPolicy.FIRST_COME, 1, 20);
+        Reservation fromWindow = timed.submit(new BookingRequest("K001", "G1", new DateRange(day1, day1))).join();
+        test("submit() - window closes on its own", fromWindow != null && fromWindow.isConfirmed());
+        test("flush() - winner becomes the plot's current gardener",
+             shared.findPlotById("K001").getCurrentGardener() == shared.findGardenerById("G1") &&
+             fc.get(0).getPlot().getCurrentGardener() == fc.get(0).getGardener());
+        timed.close();
+        try {
+            timed.submit(new BookingRequest("K001", "G1", new DateRange(day1, day1)));
+            test("submit() - refused after close", false);
+        } catch (IllegalStateException e) {
+            test("submit() - refused after close", timed.getPendingCount() == 0);
+        }
+
+        // a manual flush cancels the window timer of the batch it took
+        shared.addPlot(new GardenPlot("K002"));
+        shared.addPlot(new GardenPlot("K003"));
+        BookingIntake slow = new BookingIntake(shared, ConflictPolicy.FIRST_COME, 1, 400);
+        slow.submit(new BookingRequest("K002", "G1", new DateRange(day1, day1)));
+        try {
+            Thread.sleep(250);
+            slow.flush();
+            CompletableFuture<Reservation> next = slow.submit(new BookingRequest("K003", "G1", new DateRange(day1, day1)));
+            Thread.sleep(250);
+            test("flush() - old window timer cancelled", !next.isDone() && slow.getPendingCount() == 1);
+            test("flush() - next batch gets its own window", next.join() != null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        slow.close();
+        try {
+            new BookingIntake(new GardenSystem(), ConflictPolicy.LOTTERY, 1, 20);
+            test("Constructor - timed window needs concurrent system", false);
+        } catch (IllegalArgumentException e) {
+            test("Constructor - timed window needs concurrent system", true);
+        }
+        
+        System.out.println();
+    }
+    
+    // GARDENJOURNAL TESTS
+    
+    private static void testGardenJournal() {
+        System.out.println("─────────────────────────────────────────────────────────────");
+        System.out.println("Testing GardenJournal class");
+        System.out.println("─────────────────────────────────────────────────────────────");
+        
+        try {
+            Path file = Files.createTempFile("garden", ".journal");
+            Files.delete(file);
+            LocalDate start = LocalDate.of(2032, 4, 1);
+            
+            GardenSystem system = new GardenSystem(Clock.systemUTC(), new SequentialIdGenerator(), true);
+            GardenJournal journal = GardenJournal.open(file);
+            system.setJournal(journal);
+            GardenPlot restricted = new GardenPlot("J001", "Herb Bed", 6.0, "North");
+            restricted.addAllowedCrop("Basil");
+            system.addPlot(restricted);
+            system.addPlot(new GardenPlot("J002"));
+            system.addPlot(new GardenPlot("J003"));
+            system.registerGardener(new Gardener("G1", "Ann", "ann@example.com", null));
+            system.registerGardener(new Gardener("G2"));
+            Reservation booked = system.bookPlot("J001", "G1", new DateRange(start, start.plusDays(9)),
+                                                 Arrays.asList(new Crop("Basil")));
+            Reservation cancelled = system.createReservation("J002", "G2", new DateRange(start, start));
+            system.cancelReservation(cancelled.getReservationID());
+            Reservation requested = system.createReservation("J002", "G1", new DateRange(start, start));
+            restricted.addAllowedCrop("Thyme");
+            system.removePlot("J003");
+            test("append - acknowledged records are durable", journal.getDurableSequence() >= 9);
+            
+            // concurrent bookings share flushes
+            for (int i = 3; i <= 34; i++) {
+                system.addPlot(new GardenPlot("J" + (100 + i)));
+                system.registerGardener(new Gardener("G" + i));
+            }
+            long flushesBefore = journal.getFlushCount();
+            long recordsBefore = journal.getDurableSequence();
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            List<CompletableFuture<Reservation>> bookings = new ArrayList<>();
+            for (int i = 3; i <= 34; i++) {
+                String plotId = "J" + (100 + i);
+                String gardenerId = "G" + i;
+                bookings.add(CompletableFuture.supplyAsync(() ->
+                    system.bookPlot(plotId, gardenerId, new DateRange(start, start.plusDays(1)), null), pool));
+            }
+            bookings.forEach(CompletableFuture::join);
+            pool.shutdown();
+            long records = journal.getDurableSequence() - recordsBefore;
+            long flushes = journal.getFlushCount() - flushesBefore;
+            test("group commit - 64 records, fewer flushes", records == 64 && flushes < records);
+            journal.close();
+            
+            GardenSystem restored = new GardenSystem(Clock.systemUTC(), new SequentialIdGenerator(), true);
+            long end = GardenJournal.replay(file, restored);
+            test("replay() - reads to end of file", end == Files.size(file));
+            test("replay() - plots and gardeners", restored.getPlots().size() == 34 &&
+                 restored.findPlotById("J003") == null && restored.getGardeners().size() == 34 &&
+                 "ann@example.com".equals(restored.findGardenerById("G1").getEmail()));
+            GardenPlot herbBed = restored.findPlotById("J001");
+            test("replay() - plot details and crop restrictions", herbBed.getName().equals("Herb Bed") &&
+                 herbBed.isCropAllowed("Thyme") && !herbBed.isCropAllowed("Carrot"));
+            test("replay() - statuses", 
+                 restored.findReservationById(booked.getReservationID()).isConfirmed() &&
+                 restored.findReservationById(cancelled.getReservationID()).isCancelled() &&
+                 restored.findReservationById(requested.getReservationID()).getStatus() == ReservationStatus.REQUESTED);
+            test("replay() - availability rebuilt", !restored.isPlotAvailable("J001", new DateRange(start, start)) &&
+                 restored.getActiveReservationCount() == system.getActiveReservationCount());
+            test("replay() - planting plan", 
+                 restored.findReservationById(booked.getReservationID()).getPlantingPlan().size() == 1);
+            test("replay() - ID counter advanced", restored.getIdGenerator().currentSequence() == 
+                 system.getIdGenerator().currentSequence());
+            GardenJournal.replay(file, restored);
+            test("replay() - twice is harmless", restored.getReservations().size() == system.getReservations().size() &&
+                 restored.getActiveReservationCount() == system.getActiveReservationCount());
+            
+            // a crash mid-write leaves a torn record at the end
+            Files.write(file, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+            GardenSystem torn = new GardenSystem();
+            test("replay() - stops at torn record", GardenJournal.replay(file, torn) == end &&
+                 torn.getReservations().size() == system.getReservations().size());
+            GardenJournal reopened = GardenJournal.open(file);
+            test("open() - cuts torn tail", Files.size(file) == end && reopened.getDurableOffset() == end);
+            torn.setJournal(reopened);
+            torn.registerGardener(new Gardener("G99"));
+            reopened.close();
+            GardenSystem afterTear = new GardenSystem();
+            GardenJournal.replay(file, afterTear);
+            test("open() - appends after the cut", afterTear.findGardenerById("G99") != null);
+            reopened.close();
+
+            // a command loop waits once per batch, not once per command
+            Path loopFile = Files.createTempFile("garden-loop", ".journal");
+            Files.delete(loopFile);
+            GardenSystem looped = new GardenSystem();
+            GardenJournal loopJournal = GardenJournal.open(loopFile);
+            looped.setJournal(loopJournal);
+            for (int i = 0; i < 40; i++) {
+                looped.addPlot(new GardenPlot("L" + i));
+                looped.registerGardener(new Gardener("LG" + i));
+            }
+            GardenCommandLoop loop = new GardenCommandLoop(looped);
+            loop.start();
+            long loopFlushesBefore = loopJournal.getFlushCount();
+            java.util.concurrent.CountDownLatch queuedUp = new java.util.concurrent.CountDownLatch(1);
+            loop.submit(s -> {   // holds the writer until all 40 are queued behind it
+                try {
+                    queuedUp.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+            List<CompletableFuture<Reservation>> queued = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                queued.add(loop.createReservation("L" + i, "LG" + i, new DateRange(start, start), null));
+            }
+            queuedUp.countDown();
+            boolean allBooked = true;
+            for (CompletableFuture<Reservation> future : queued) {
+                allBooked &= future.join() != null;
+            }
+            long loopFlushes = loopJournal.getFlushCount() - loopFlushesBefore;
+            test("command loop - one journal wait per batch, fewer flushes than bookings",
+                 allBooked && loopJournal.getDurableSequence() == 120 && loopFlushes < 40);
+            loop.stop();
+            loopJournal.close();
+            Files.delete(loopFile);
+
+            // a failed flusher stops the system from accepting changes
+            Path failFile = Files.createTempFile("garden-fail", ".journal");
+            Files.delete(failFile);
+            GardenSystem failing = new GardenSystem(Clock.systemUTC(), new SequentialIdGenerator(), true);
+            failing.addPlot(new GardenPlot("F1"));
+            failing.registerGardener(new Gardener("FG1"));
+            Set<Thread> flushersBefore = journalThreads();
+            GardenJournal failJournal = GardenJournal.open(failFile);
+            failing.setJournal(failJournal);
+            Set<Thread> flushers = journalThreads();
+            flushers.removeAll(flushersBefore);
+            flushers.forEach(Thread::interrupt);
+            for (int i = 0; i < 200 && !failJournal.hasFailed(); i++) {
+                Thread.sleep(5);
+            }
+            boolean refused;
+            try {
+                failing.createReservation("F1", "FG1", new DateRange(start, start));
+                refused = false;
+            } catch (java.io.UncheckedIOException e) {
+                refused = true;
+            }
+            test("fail-stop - booking refused after a journal failure", failJournal.hasFailed() && refused &&
+                 failing.getReservations().isEmpty() && failing.isPlotAvailable("F1", new DateRange(start, start)));
+            try {
+                failing.registerGardener(new Gardener("FG2"));
+                refused = false;
+            } catch (java.io.UncheckedIOException e) {
+                refused = true;
+            }
+            test("fail-stop - registration refused", refused && failing.findGardenerById("FG2") == null);
+            try {
+                failJournal.close();
+            } catch (IOException e) {
+                // the failure is reported again on close
+            }
+            Files.delete(failFile);
+
+            Files.write(file, "not a journal".getBytes(StandardCharsets.UTF_8));
+            try {
+                GardenJournal.replay(file, new GardenSystem());
+                test("replay() - rejects foreign file", false);
+            } catch (IOException e) {
+                test("replay() - rejects foreign file", true);
+            }
+            Files.delete(file);
+        } catch (IOException | InterruptedException e) {
+            test("GardenJournal - I/O error: " + e.getMessage(), false);
+        }
+        
+        System.out.println();
+    }
+    
+    // GARDENSNAPSHOT TESTS
+    
+    private static void testGardenSnapshot() {
+        System.out.println("─────────────────────────────────────────────────────────────");
+        System.out.println("Testing GardenSnapshot class");
+        System.out.println("─────────────────────────────────────────────────────────────");
+        
+        try {
+            Path dir = Files.createTempDirectory("garden-state");
+            Path snapshotFile = dir.resolve("garden.snapshot");
+            Path journalFile = dir.resolve("garden.journal");
+            LocalDate start = LocalDate.of(2033, 5, 1);
+            
+            GardenSystem system = new GardenSystem(Clock.systemUTC(), new SequentialIdGenerator(), true);
+            GardenJournal journal = GardenJournal.open(journalFile);
+            system.setJournal(journal);
+            GardenPlot herbs = new GardenPlot("S001", "Herbs", 8.5, null);
+            herbs.addAllowedCrop("Mint");
+            system.addPlot(herbs);
+            system.addPlot(new GardenPlot("S002"));
+            system.registerGardener(new Gardener("G1", "Ann", null, "555-0101"));
+            system.registerGardener(new Gardener("G2"));
+            Crop mint = new Crop("Mint", 50, new HashSet<>(Arrays.asList(Crop.Season.SPRING)), "Fast-growing herb");
+            Reservation confirmed = system.bookPlot("S001", "G1", new DateRange(start, start.plusDays(30)),
+                                                    Arrays.asList(mint));
+            Reservation pending = system.createReservation("S002", "G2", new DateRange(start, start));
+            Reservation completed = system.bookPlot("S002", "G1", new DateRange(start.minusDays(90), start.minusDays(60)), null);
+            system.completeReservation(completed.getReservationID());
+            
+            Path mappedFile = dir.resolve("garden.mapped");
+            SnapshotScheduler scheduler = new SnapshotScheduler(system, snapshotFile, mappedFile, 60_000);
+            scheduler.snapshotNow();
+            test("snapshotNow() - records journal offset", scheduler.getSnapshotsTaken() == 1 &&
+                 scheduler.getLastJournalOffset() == journal.getDurableOffset() &&
+                 journal.getDurableOffset() == journal.getAppendedOffset());
+            MappedSnapshot mapped = MappedSnapshot.open(mappedFile);
+            test("snapshotNow() - writes the mapped snapshot too",
+                 mapped.getJournalOffset() == scheduler.getLastJournalOffset() &&
+                 mapped.getReservationCount() == 3 && mapped.getPlotCount() == 2);
+            
+            // the tail: changes after the snapshot
+            system.confirmReservation(pending.getReservationID());
+            system.registerGardener(new Gardener("G3"));
+            Reservation late = system.createReservation("S002", "G3", new DateRange(start.plusDays(5), start.plusDays(6)));
+            journal.close();
+            
+            GardenSystem fromSnapshot = new GardenSystem(Clock.systemUTC(), new SequentialIdGenerator(), true);
+            long offset = GardenSnapshot.restore(snapshotFile, fromSnapshot);
+            test("restore() - returns journal offset", offset == scheduler.getLastJournalOffset());
+            test("restore() - plots and gardeners", fromSnapshot.getPlots().size() == 2 &&
+                 fromSnapshot.findPlotById("S001").getSizeSqMeters() == 8.5 &&
+                 fromSnapshot.findPlotById("S001").isCropAllowed("Mint") &&
+                 !fromSnapshot.findPlotById("S001").isCropAllowed("Carrot") &&
+                 "555-0101".equals(fromSnapshot.findGardenerById("G1").getPhoneNumber()));
+            test("restore() - statuses as of the snapshot",
+                 fromSnapshot.findReservationById(confirmed.getReservationID()).isConfirmed() &&
+                 fromSnapshot.findReservationById(pending.getReservationID()).getStatus() == ReservationStatus.REQUESTED &&
+                 fromSnapshot.findReservationById(completed.getReservationID()).isCompleted());
+            Crop restoredMint = fromSnapshot.findReservationById(confirmed.getReservationID()).getPlantingPlan().get(0);
+            test("restore() - crop details", restoredMint.getMinGrowingDays() == 50 &&
+                 restoredMint.getBestSeasons().contains(Crop.Season.SPRING));
+            test("restore() - availability rebuilt", 
+                 !fromSnapshot.isPlotAvailable("S001", new DateRange(start, start)) &&
+                 fromSnapshot.getGardeners().size() == 2);
+            
+            GardenSystem recovered = new GardenSystem(Clock.systemUTC(), new SequentialIdGenerator(), true);
+            GardenSnapshot.recover(snapshotFile, journalFile, recovered);
+            test("recover() - snapshot plus journal tail", recovered.getReservations().size() == 4 &&
+                 recovered.findReservationById(pending.getReservationID()).isConfirmed() &&
+                 recovered.findReservationById(late.getReservationID()) != null &&
+                 recovered.findGardenerById("G3") != null);
+            test("recover() - ID counter", recovered.getIdGenerator().currentSequence() == 
+                 system.getIdGenerator().currentSequence());
+            
+            // a snapshot newer than its offset - the tail overlaps it
+            GardenSnapshot.write(snapshotFile, system, GardenJournal.HEADER_SIZE);
+            GardenSystem overlapping = new GardenSystem(Clock.systemUTC(), new SequentialIdGenerator(), true);
+            GardenSnapshot.recover(snapshotFile, journalFile, overlapping);
+            test("recover() - overlapping tail is skipped", overlapping.getReservations().size() == 4 &&
+                 overlapping.getActiveReservationCount() == system.getActiveReservationCount() &&
+                 overlapping.findReservationById(completed.getReservationID()).isCompleted());
+            
+            GardenSystem empty = new GardenSystem();
+            GardenSnapshot.recover(dir.resolve("none.snapshot"), dir.resolve("none.journal"), empty);
+            test("recover() - nothing saved yet", empty.getPlots().isEmpty());
+            try {
+                new SnapshotScheduler(new GardenSystem(), snapshotFile, 1000);
+                test("SnapshotScheduler - needs a journal", false);
+            } catch (IllegalArgumentException e) {
+                test("SnapshotScheduler - needs a journal", true);
+            }
+            try {
+                GardenSnapshot.restore(journalFile, new GardenSystem());
+                test("restore() - rejects foreign file", false);
+            } catch (IOException e) {
+                test("restore() - rejects foreign file", true);
+            }
+            
+            Files.delete(snapshotFile);
+            Files.delete(journalFile);
+            Files.delete(mappedFile);
+            Files.delete(dir);
+        } catch (IOException e) {
+            test("GardenSnapshot - I/O error: " + e.getMessage(), false);
+        }
+        
+        System.out.println();
+    }
+    
+    // MAPPEDSNAPSHOT TESTS
+    
+    private static void testMappedSnapshot() {
+        System.out.println("─────────────────────────────────────────────────────────────");
+        System.out.println("Testing MappedSnapshot class");
+        System.out.println("─────────────────────────────────────────────────────────────");
+        
+        try {
+            Path file = Files.createTempFile("garden", ".gmap");
+            LocalDate start = LocalDate.of(2034, 4, 1);
+            GardenSystem system = new GardenSystem(Clock.systemUTC());
+            GardenPlot herbs = new GardenPlot("M002", "Herbs", 12.5, "South");
+            herbs.addAllowedCrop("Thyme");
+            system.addPlot(new GardenPlot("M001", "Corner"));
+            system.addPlot(herbs);
+            system.registerGardener(new Gardener("G2", "Bo", "bo@example.com", null));
+            system.registerGardener(new Gardener("G1", "Ann"));
+            Reservation first = system.bookPlot("M002", "G1", new DateRange(start, start.plusDays(9)),
+                                                Arrays.asList(new Crop("Thyme")));
+            Reservation second = system.createReservation("M001", "G2", new DateRange(start, start.plusDays(2)));
+            system.cancelReservation(second.getReservationID());
+            system.createReservation("M001", "G1", new DateRange(start, start));
+            MappedSnapshot.write(file, system, 42);
+            
+            MappedSnapshot mapped = MappedSnapshot.open(file);
+            test("open() - header", mapped.getPlotCount() == 2 && mapped.getGardenerCount() == 2 &&
+                 mapped.getReservationCount() == 3 && mapped.getJournalOffset() == 42 &&
+                 mapped.getIdSequence() == 3);
+            test("open() - nothing decoded yet", mapped.decodedReservationCount() == 0);
+            test("raw fields - no decoding", mapped.getReservationId(1).equals(second.getReservationID()) &&
+                 mapped.getStatus(1) == ReservationStatus.CANCELLED &&
+                 mapped.getDateRange(0).getEndDate().equals(start.plusDays(9)) &&
+                 mapped.getPlotIndex(0) == 1 && mapped.decodedReservationCount() == 0);
+            int[] counts = mapped.countByStatus();
+            test("countByStatus()", counts[ReservationStatus.CONFIRMED.ordinal()] == 1 &&
+                 counts[ReservationStatus.CANCELLED.ordinal()] == 1 &&
+                 counts[ReservationStatus.REQUESTED.ordinal()] == 1);
+            String summary = mapped.generateSummaryReport();
+            test("generateSummaryReport()", summary.contains("Total Reservations: 3") &&
+                 summary.contains("CANCELLED: 1") && summary.contains("Plot: Corner (M001) - 1") &&
+                 summary.contains("Plot: Herbs (M002) - 1") && mapped.decodedReservationCount() == 0);
+            
+            Reservation decoded = mapped.findReservationById(first.getReservationID());
+            test("findReservationById() - decodes one record", decoded != null && decoded.isConfirmed() &&
+                 decoded.getPlantingPlan().get(0).getName().equals("Thyme") &&
+                 mapped.decodedReservationCount() == 1);
+            test("getReservation() - decoded once, then shared", mapped.getReservation(0) == decoded);
+            GardenPlot plot = decoded.getPlot();
+            test("getPlot() - fields and crop list", plot.getPlotID().equals("M002") &&
+                 plot.getSizeSqMeters() == 12.5 && "South".equals(plot.getLocation()) &&
+                 plot.isCropAllowed("Thyme") && !plot.isCropAllowed("Carrot") && mapped.getPlot(1) == plot);
+            test("findGardenerById()", mapped.findGardenerById("G2").getEmail().equals("bo@example.com") &&
+                 mapped.findGardenerById("G1").getEmail() == null && mapped.findGardenerById("G9") == null);
+            test("findPlotById()", mapped.findPlotById("M001").getName().equals("Corner") &&
+                 mapped.findPlotById("M000") == null && mapped.findReservationById("R9999") == null);
+            try {
+                mapped.getReservation(3);
+                test("getReservation() - out of range", false);
+            } catch (IndexOutOfBoundsException e) {
+                test("getReservation() - out of range", true);
+            }
+            
+            Files.write(file, "not a snapshot, but long enough for a header..........................".getBytes(StandardCharsets.UTF_8));
+            try {
+                MappedSnapshot.open(file);
+                test("open() - rejects foreign file", false);
+            } catch (IOException e) {
+                test("open() - rejects foreign file", true);
+            }
+            Files.delete(file);
+        } catch (IOException e) {
+            test("MappedSnapshot - I/O error: " + e.getMessage(), false);
+        }
+        
+        System.out.println();
+    }
+    
+    // RESERVATIONCODEC TESTS
+    
+    private static void testReservationCodec() {
+        System.out.println("─────────────────────────────────────────────────────────────");
+        System.out.println("Testing ReservationCodec class");
+        System.out.println("─────────────────────────────────────────────────────────────");
+        
+        GardenSystem system = new GardenSystem(Clock.systemUTC());
+        List<GardenPlot> plots = new ArrayList<>();
+        List<Gardener> gardeners = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            plots.add(new GardenPlot("C" + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            gardeners.add(new Gardener("G" + i));
+        }
+        List<Crop> tomato = Arrays.asList(new Crop("Tomato"));
+        List<Reservation> history = new ArrayList<>();
+        java.util.Random random = new java.util.Random(7);
+        LocalDate season = LocalDate.of(2020, 3, 1);
+        for (int i = 1; i <= 5000; i++) {
+            LocalDate start = season.plusDays(i / 10 + random.nextInt(30));
+            history.add(new Reservation(String.format("R%04d", i), plots.get(random.nextInt(plots.size())),
+                                        gardeners.get(random.nextInt(gardeners.size())),
+                                        new DateRange(start, start.plusDays(30 + random.nextInt(60))),
+                                        i % 3 == 0 ? null : tomato, ReservationStatus.values()[i % 4]));
+        }
+        system.bulkLoad(plots.stream(), gardeners.stream(), null);
+        
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 17);
+        ReservationCodec.Encoder encoder = new ReservationCodec.Encoder();
+        for (Reservation res : history) {
+            encoder.encode(res, buffer);
+        }
+        double bytesPerRecord = (double) buffer.position() / history.size();
+        test("encode() - under 16 bytes per reservation (" + String.format("%.1f", bytesPerRecord) + ")",
+             bytesPerRecord < 16);
+        buffer.flip();
+        ReservationCodec.Decoder decoder = new ReservationCodec.Decoder(system);
+        boolean same = true;
+        for (Reservation original : history) {
+            Reservation copy = decoder.decode(buffer);
+            same &= copy != null && copy.getReservationID().equals(original.getReservationID()) &&
+                    copy.getPlot() == original.getPlot() && copy.getGardener() == original.getGardener() &&
+                    copy.getDateRange().equals(original.getDateRange()) &&
+                    copy.getStatus() == original.getStatus() &&
+                    copy.getPlantingPlan().size() == original.getPlantingPlan().size();
+        }
+        test("decode() - round trip, plots and gardeners from system", same);
+        test("decode() - empty buffer gives null", decoder.decode(buffer) == null);
+        
+        // odd IDs and unknown references, through a buffer too small for two records
+        LocalDate day = LocalDate.of(2031, 1, 1);
+        GardenPlot stray = new GardenPlot("X1");
+        Gardener stranger = new Gardener("Z1");
+        List<Reservation> odd = Arrays.asList(
+            new Reservation("legacy-id", stray, stranger, new DateRange(day, day)),
+            new Reservation("R007-0003", stray, stranger, new DateRange(day.minusDays(400), day),
+                            Arrays.asList(new Crop("A"), new Crop("B"), new Crop("C"), new Crop("D"),
+                                          new Crop("E"), new Crop("F"), new Crop("G"), new Crop("H"))),
+            new Reservation("R3", stray, stranger, new DateRange(day, day)),
+            new Reservation("R0003", stray, stranger, new DateRange(day, day)));
+        ByteBuffer small = ByteBuffer.allocate(48);
+        ReservationCodec.Encoder streaming = new ReservationCodec.Encoder();
+        ReservationCodec.Decoder reading = new ReservationCodec.Decoder(null);
+        List<Reservation> received = new ArrayList<>();
+        for (Reservation res : odd) {
+            while (!streaming.encode(res, small)) {
+                small.flip();
+                Reservation next;
+                while ((next = reading.decode(small)) != null) received.add(next);
+                small.compact();
+            }
+        }
+        small.flip();
+        Reservation next;
+        while ((next = reading.decode(small)) != null) received.add(next);
+        boolean oddSame = received.size() == odd.size();
+        for (int i = 0; oddSame && i < odd.size(); i++) {
+            oddSame = received.get(i).getReservationID().equals(odd.get(i).getReservationID()) &&
+                      received.get(i).getDateRange().equals(odd.get(i).getDateRange()) &&
+                      received.get(i).getPlantingPlan().size() == odd.get(i).getPlantingPlan().size();
+        }
+        test("encode() - reports full buffer, streams in pieces", oddSame);
+        test("decode() - unknown plot and gardener shared", received.get(0).getPlot() == received.get(3).getPlot() &&
+             received.get(0).getGardener().getGardenerID().equals("Z1"));
+        
+        ByteBuffer partial = ByteBuffer.allocate(64);
+        new ReservationCodec.Encoder().encode(odd.get(1), partial);
+        partial.flip();
+        partial.limit(partial.limit() - 1);
+        test("decode() - incomplete record left unread", 
+             new ReservationCodec.Decoder(null).decode(partial) == null && partial.position() == 0);
+        
+        try {
+            java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+            ReservationCodec.writeAll(history, java.nio.channels.Channels.newChannel(bytes));
+            List<Reservation> back = ReservationCodec.readAll(java.nio.channels.Channels.newChannel(
+                new java.io.ByteArrayInputStream(bytes.toByteArray())), system);
+            test("writeAll()/readAll() - channels", back.size() == history.size() &&
+                 back.get(4999).getReservationID().equals("R5000") && bytes.size() < 16 * history.size());
+        } catch (IOException e) {
+            test("writeAll()/readAll() - I/O error: " + e.getMessage(), false);
+        }
+        
+        System.out.println();
+    }
+    
+    // GARDENCSV TESTS
+    
+    private static void testGardenCsv() {
+        System.out.println("─────────────────────────────────────────────────────────────");
+        System.out.println("Testing GardenCsv class");
+        System.out.println("─────────────────────────────────────────────────────────────");
+        
+        try {
+            Path dir = Files.createTempDirectory("garden-csv");
+            GardenSystem system = new GardenSystem(Clock.systemUTC());
+            GardenPlot herbs = new GardenPlot("V1", "Herbs, \"North\"", 12.5, null);
+            herbs.addAllowedCrop("Basil");
+            herbs.addAllowedCrop("Sage");
+            system.addPlot(herbs);
+            system.addPlot(new GardenPlot("V2", "Open Bed", 30.0, "East"));
+            system.registerGardener(new Gardener("CG1", "Ann", "ann@example.com", null));
+            system.registerGardener(new Gardener("CG2", "Bo"));
+            Crop basil = CropCatalog.shared().intern(new Crop("Basil", 60,
+                new HashSet<>(Arrays.asList(Crop.Season.SUMMER, Crop.Season.SPRING)), "Aromatic\nherb"));
+            Crop sage = new Crop("Sage");
+            Reservation booked = system.createReservation("V1", "CG1",
+                new DateRange(LocalDate.of(2031, 4, 1), LocalDate.of(2031, 6, 30)), Arrays.asList(basil));
+            system.confirmReservation(booked.getReservationID());
+            system.createReservation("V2", "CG2", new DateRange(LocalDate.of(2031, 5, 1), LocalDate.of(2031, 5, 20)), null);
+            GardenCsv.save(dir, system, Arrays.asList(basil, sage));
+            
+            GardenSystem loaded = new GardenSystem(Clock.systemUTC());
+            List<Crop> crops = GardenCsv.load(dir, loaded);
+            GardenPlot herbsBack = loaded.findPlotById("V1");
+            test("load() - crops with seasons and growing days", crops.size() == 2 && crops.get(0) == basil &&
+                 crops.get(1).getMinGrowingDays() == 0 && crops.get(1).getBestSeasons().isEmpty());
+            test("load() - plot with quoted name and allowed crops", herbsBack != null &&
+                 herbsBack.getName().equals("Herbs, \"North\"") && herbsBack.getLocation() == null &&
+                 herbsBack.getAllowedCrops().equals(new HashSet<>(Arrays.asList("basil", "sage"))) &&
+                 herbsBack.getSizeSqMeters() == 12.5);
+            Gardener ann = loaded.findGardenerById("CG1");
+            test("load() - gardeners, empty fields as null", loaded.getGardeners().size() == 2 &&
+                 ann.getEmail().equals("ann@example.com") && ann.getPhoneNumber() == null);
+            Reservation bookedBack = loaded.findReservationById(booked.getReservationID());
+            test("load() - reservations with status, dates and crops", loaded.getReservations().size() == 2 &&
+                 bookedBack.getStatus() == ReservationStatus.CONFIRMED && bookedBack.getPlot() == herbsBack &&
+                 bookedBack.getDateRange().equals(booked.getDateRange()) &&
+                 bookedBack.getPlantingPlan().get(0) == basil);
+            test("load() - confirmed reservation's gardener occupies the plot", herbsBack.getCurrentGardener() == ann);
+            test("load() - confirmed reservation blocks the plot",
+                 !loaded.isPlotAvailable("V1", new DateRange(LocalDate.of(2031, 5, 1), LocalDate.of(2031, 5, 2))));
+            String cropsText = new String(Files.readAllBytes(dir.resolve("crops.csv")), StandardCharsets.UTF_8);
+            test("writeCrops() - seasons in order, line break as space",
+                 cropsText.contains("Basil,60,SPRING;SUMMER,Aromatic herb"));
+
+            // crops read beforehand are passed through; crops.csv is not read again
+            Files.write(dir.resolve("crops.csv"), Arrays.asList("not,a,crops,file"), StandardCharsets.UTF_8);
+            GardenSystem reloaded = new GardenSystem(Clock.systemUTC());
+            List<Crop> passedThrough = GardenCsv.load(dir, reloaded, crops);
+            test("load() - with crops already read", passedThrough == crops &&
+                 reloaded.getReservations().size() == 2 &&
+                 reloaded.findReservationById(booked.getReservationID()).getPlantingPlan().get(0) == basil);
+            
+            // enough rows to be split into parallel chunks; file order is kept
+            Path many = dir.resolve("many.csv");
+            List<Gardener> gardeners = new ArrayList<>();
+            for (int i = 0; i < 50000; i++) {
+                gardeners.add(new Gardener("M" + i, "Gardener " + i, i % 2 == 0 ? "m" + i + "@example.com" : null, null));
+            }
+            GardenCsv.writeGardeners(many, gardeners);
+            List<Gardener> readBack;
+            try (java.util.stream.Stream<Gardener> rows = GardenCsv.readGardeners(many)) {
+                readBack = rows.collect(java.util.stream.Collectors.toList());
+            }
+            boolean inOrder = readBack.size() == gardeners.size();
+            for (int i = 0; inOrder && i < readBack.size(); i++) {
+                inOrder = readBack.get(i).getGardenerID().equals("M" + i);
+            }
+            test("readGardeners() - large file in file order", inOrder);
+            
+            test("parseLine() - quotes and empty fields",
+                 Arrays.equals(GardenCsv.parseLine("a,\"b,\"\"c\"\"\",,d"), new String[] {"a", "b,\"c\"", "", "d"}));
+            
+            Path bad = dir.resolve("bad.csv");
+            Files.write(bad, Arrays.asList("plotId,name", "V9,x"), StandardCharsets.UTF_8);
+            boolean headerRejected = false;
+            try {
+                GardenCsv.readPlots(bad).close();
+            } catch (IOException e) {
+                headerRejected = true;
+            }
+            test("readPlots() - wrong header rejected", headerRejected);
+            Files.write(bad, Arrays.asList(GardenCsv.PLOTS_HEADER, "V9,x,not-a-number,,"), StandardCharsets.UTF_8);
+            boolean rowRejected = false;
+            try (java.util.stream.Stream<GardenPlot> rows = GardenCsv.readPlots(bad)) {
+                rows.count();
+            } catch (IllegalArgumentException e) {
+                rowRejected = true;
+            }
+            test("readPlots() - malformed row rejected", rowRejected);
+            Files.write(bad, Arrays.asList(GardenCsv.RESERVATIONS_HEADER, "R1,NOPE,CG1,2031-01-01,2031-01-02,REQUESTED,"),
+                        StandardCharsets.UTF_8);
+            boolean unknownRejected = false;
+            try (java.util.stream.Stream<Reservation> rows = GardenCsv.readReservations(bad, loaded::findPlotById,
+                                                                                        loaded::findGardenerById)) {
+                rows.count();
+            } catch (IllegalArgumentException e) {
+                unknownRejected = e.getMessage().contains("NOPE");
+            }
+            test("readReservations() - unknown plot rejected", unknownRejected);
+            
+            for (String name : Arrays.asList("crops.csv", "plots.csv", "gardeners.csv", "reservations.csv",
+                                             "many.csv", "bad.csv")) {
+                Files.delete(dir.resolve(name));
+            }
+            Files.delete(dir);
+        } catch (IOException e) {
+            test("GardenCsv - I/O error: " + e.getMessage(), false);
+        }
+        
         System.out.println();
     }
     
+    private static Set<Thread> journalThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("garden-journal")) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+    
+    private static GardenSystem intakeSystem() {
+        GardenSystem system = new GardenSystem(Clock.systemUTC());
+        for (int i = 1; i <= 4; i++) {
+            system.addPlot(new GardenPlot("K00" + i));
+            system.registerGardener(new Gardener("G" + i));
+        }
+        return system;
+    }
+    
+    private static String lotteryWinner(List<BookingRequest> requests, long seed) {
+        BookingIntake lottery = new BookingIntake(intakeSystem(), ConflictPolicy.LOTTERY, seed);
+        requests.forEach(lottery::submit);
+        String winner = null;
+        for (Reservation res : lottery.flush()) {
+            if (res != null) {
+                if (winner != null) return null;  // more than one
+                winner = res.getGardener().getGardenerID();
+            }
+        }
+        return winner;
+    }
+    
+    // "status body" of one HTTP call
+    private static String httpCall(String method, String url, String form) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        if (form != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(form.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        try (InputStream body = in) {
+            return status + " " + new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    
     
     private static void test(String testName, boolean condition) {
         if (condition) {